@@ -2,11 +2,19 @@ package ovh.mythmc.banco.api;
 
 import org.jetbrains.annotations.NotNull;
 import ovh.mythmc.banco.api.storage.BancoConfig;
+import ovh.mythmc.banco.api.economy.accounts.Account;
 import ovh.mythmc.banco.api.economy.accounts.AccountManager;
+import ovh.mythmc.banco.api.economy.accounts.TransactionBatch;
 import ovh.mythmc.banco.api.economy.EconomyManager;
 import ovh.mythmc.banco.api.logger.LoggerWrapper;
+import ovh.mythmc.banco.api.scheduler.BancoScheduler;
 import ovh.mythmc.banco.api.storage.BancoStorage;
 
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
 public interface Banco {
 
     @NotNull static Banco get() { return BancoSupplier.get(); }
@@ -21,8 +29,60 @@ public interface Banco {
 
     @NotNull BancoStorage getStorage();
 
+    @NotNull BancoScheduler getScheduler();
+
     @NotNull default AccountManager getAccountManager() { return AccountManager.instance; }
 
     @NotNull default EconomyManager getEconomyManager() { return EconomyManager.instance; }
 
+    /*
+     * Asynchronous API. These methods can be called from any thread without blocking it: accounts that are not in
+     * memory are loaded on a virtual thread, and the operation itself runs on the thread that owns the player (or
+     * right away for offline players). Futures fail with an IllegalArgumentException if the account does not exist
+     */
+
+    default @NotNull CompletableFuture<BigDecimal> balanceAsync(final @NotNull UUID uuid) {
+        return forAccount(uuid, account -> getAccountManager().amount(account));
+    }
+
+    default @NotNull CompletableFuture<Void> depositAsync(final @NotNull UUID uuid, final @NotNull BigDecimal amount) {
+        return forAccount(uuid, account -> {
+            getAccountManager().deposit(account, amount);
+            return null;
+        });
+    }
+
+    // Completes with false if there are not enough funds
+    default @NotNull CompletableFuture<Boolean> withdrawAsync(final @NotNull UUID uuid, final @NotNull BigDecimal amount) {
+        return forAccount(uuid, account -> getAccountManager().batch().withdraw(account, amount).apply().get(0) == TransactionBatch.Result.SUCCESS);
+    }
+
+    default @NotNull CompletableFuture<Void> setAsync(final @NotNull UUID uuid, final @NotNull BigDecimal amount) {
+        return forAccount(uuid, account -> {
+            getAccountManager().set(account, amount);
+            return null;
+        });
+    }
+
+    // Runs on the thread that owns the sender, the recipient's inventory catches up on its own thread
+    default @NotNull CompletableFuture<TransactionBatch.Result> transferAsync(final @NotNull UUID from,
+                                                                             final @NotNull UUID to,
+                                                                             final @NotNull BigDecimal amount) {
+        return getAccountManager().getAsync(to).thenCompose(target -> {
+            if (target == null)
+                return CompletableFuture.failedFuture(new IllegalArgumentException("No account found for " + to));
+
+            return forAccount(from, source -> getAccountManager().transfer(source, target, amount));
+        });
+    }
+
+    private <T> @NotNull CompletableFuture<T> forAccount(final @NotNull UUID uuid, final @NotNull Function<Account, T> action) {
+        return getAccountManager().getAsync(uuid).thenCompose(account -> {
+            if (account == null)
+                return CompletableFuture.failedFuture(new IllegalArgumentException("No account found for " + uuid));
+
+            return getScheduler().runForPlayer(uuid, () -> action.apply(account));
+        });
+    }
+
 }
@@ -9,12 +9,25 @@ public interface BancoHelper {
 
     @NotNull static BancoHelper get() { return BancoHelperSupplier.get(); }
 
-    BigDecimal add(UUID uuid, BigDecimal amount);
+    // Amounts are expressed in minor units (see Money)
+    long add(UUID uuid, long units);
 
-    BigDecimal remove(UUID uuid, BigDecimal amount);
+    long remove(UUID uuid, long units);
 
     boolean isOnline(UUID uuid);
 
-    BigDecimal getInventoryValue(UUID uuid);
+    long getInventoryUnits(UUID uuid);
+
+    default BigDecimal add(UUID uuid, BigDecimal amount) {
+        return Money.toDecimal(add(uuid, Money.toUnits(amount)));
+    }
+
+    default BigDecimal remove(UUID uuid, BigDecimal amount) {
+        return Money.toDecimal(remove(uuid, Money.toUnits(amount)));
+    }
+
+    default BigDecimal getInventoryValue(UUID uuid) {
+        return Money.toDecimal(getInventoryUnits(uuid));
+    }
 
 }
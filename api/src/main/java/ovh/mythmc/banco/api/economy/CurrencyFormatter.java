@@ -0,0 +1,80 @@
+package ovh.mythmc.banco.api.economy;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Formats amounts of money using {@code currency.format} and {@code currency.locale}. The pattern is compiled once
+ * every time the configuration is loaded and every thread formats with its own copy, so formatting does not allocate
+ * a new {@link DecimalFormat} per message.
+ */
+public final class CurrencyFormatter {
+
+    public static final String DEFAULT_PATTERN = "#,###.#";
+
+    private static volatile CurrencyFormatter instance = new CurrencyFormatter(DEFAULT_PATTERN, Locale.getDefault(Locale.Category.FORMAT));
+
+    private final String pattern;
+
+    private final Locale locale;
+
+    private final ThreadLocal<DecimalFormat> decimalFormat;
+
+    private final ThreadLocal<NumberFormat> compactFormat;
+
+    private CurrencyFormatter(final @NotNull String pattern, final @NotNull Locale locale) {
+        // Compiling the pattern here makes invalid patterns fail when the configuration is loaded
+        DecimalFormat decimalPrototype = new DecimalFormat(pattern, DecimalFormatSymbols.getInstance(locale));
+
+        NumberFormat compactPrototype = NumberFormat.getCompactNumberInstance(locale, NumberFormat.Style.SHORT);
+        compactPrototype.setMaximumFractionDigits(1);
+        compactPrototype.setRoundingMode(RoundingMode.DOWN);
+
+        this.pattern = pattern;
+        this.locale = locale;
+        this.decimalFormat = ThreadLocal.withInitial(() -> (DecimalFormat) decimalPrototype.clone());
+        this.compactFormat = ThreadLocal.withInitial(() -> (NumberFormat) compactPrototype.clone());
+    }
+
+    public static @NotNull CurrencyFormatter get() { return instance; }
+
+    // Throws IllegalArgumentException if the pattern is not valid
+    public static void configure(final @NotNull String pattern, final @NotNull Locale locale) {
+        instance = new CurrencyFormatter(pattern, locale);
+    }
+
+    // Accepts both en_US and en-US. Empty tags resolve to the default locale of the JVM
+    public static @NotNull Locale parseLocale(final @NotNull String tag) {
+        if (tag.isBlank())
+            return Locale.getDefault(Locale.Category.FORMAT);
+
+        return Locale.forLanguageTag(tag.replace('_', '-'));
+    }
+
+    public @NotNull String pattern() { return pattern; }
+
+    public @NotNull Locale locale() { return locale; }
+
+    public @NotNull String format(final @NotNull BigDecimal value) { return decimalFormat.get().format(value); }
+
+    public @NotNull String format(long units) { return format(Money.toDecimal(units)); }
+
+    // Short form such as 1.2K or 3M, following the locale's conventions. Small amounts use the regular pattern
+    public @NotNull String formatCompact(final @NotNull BigDecimal value) {
+        if (value.abs().compareTo(BigDecimal.valueOf(1000)) < 0)
+            return format(value);
+
+        // Compact formats ignore fraction digits when given a BigDecimal on some JDKs, and doubles are precise
+        // enough for rounded output anyway
+        return compactFormat.get().format(value.doubleValue());
+    }
+
+    public @NotNull String formatCompact(long units) { return formatCompact(Money.toDecimal(units)); }
+
+}
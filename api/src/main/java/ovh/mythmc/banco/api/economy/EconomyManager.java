@@ -2,13 +2,19 @@ package ovh.mythmc.banco.api.economy;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
 import org.simpleyaml.configuration.ConfigurationSection;
 import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.logger.LoggerWrapper;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings("unused")
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -32,10 +38,16 @@ public final class EconomyManager {
     };
 
     public static final EconomyManager instance = new EconomyManager();
-    private static final Map<String, BigDecimal> valuesMap = new HashMap<>();
+    // Replaced as a whole by registerAll so that lookups never see a half registered configuration
+    private static volatile Map<String, BigDecimal> valuesMap = new ConcurrentHashMap<>();
+
+    // Bumped on every change so that compiled lookup tables know when to rebuild themselves
+    private static final AtomicInteger revision = new AtomicInteger();
+
+    private static final Map<String, BigDecimal> valuesView = new ValuesView();
 
     public void registerAll(ConfigurationSection configurationSection) {
-        values().clear();
+        Map<String, BigDecimal> values = new ConcurrentHashMap<>();
 
         for (String materialName : configurationSection.getKeys(false)) {
             double value = configurationSection.getDouble(materialName);
@@ -43,27 +55,112 @@ public final class EconomyManager {
             if (Banco.get().getConfig().getSettings().isDebug())
                 logger.info(materialName + ": " + value);
 
-            register(materialName, BigDecimal.valueOf(value));
+            values.put(materialName, BigDecimal.valueOf(value));
         }
+
+        // The revision is bumped once, after the new values are published
+        valuesMap = values;
+        revision.incrementAndGet();
     }
 
-    public void register(String materialName, BigDecimal value) { valuesMap.put(materialName, value); }
+    public void register(String materialName, BigDecimal value) {
+        valuesMap.put(materialName, value);
+        revision.incrementAndGet();
+    }
 
-    public void unregister(String materialName) { valuesMap.remove(materialName); }
+    public void unregister(String materialName) {
+        valuesMap.remove(materialName);
+        revision.incrementAndGet();
+    }
+
+    public void clear() {
+        valuesMap.clear();
+        revision.incrementAndGet();
+    }
 
-    public void clear() { valuesMap.clear(); }
+    // Still modifiable like before, but through a view that bumps the revision on every change
+    public Map<String, BigDecimal> values() { return valuesView; }
 
-    public Map<String, BigDecimal> values() { return valuesMap; }
+    public int revision() { return revision.get(); }
 
-    public BigDecimal value(String materialName) { return value(materialName, 1); }
+    public BigDecimal value(String materialName) {
+        return valuesMap.getOrDefault(materialName, BigDecimal.ZERO);
+    }
 
     public BigDecimal value(String materialName, int amount) {
-        for (Map.Entry<String, BigDecimal> entry : valuesMap.entrySet()) {
-            if (!materialName.equals(entry.getKey())) continue;
-            return entry.getValue().multiply(BigDecimal.valueOf(amount));
+        BigDecimal value = valuesMap.get(materialName);
+        if (value == null)
+            return BigDecimal.ZERO;
+
+        return value.multiply(BigDecimal.valueOf(amount));
+    }
+
+    private static final class ValuesView extends AbstractMap<String, BigDecimal> {
+
+        @Override
+        public BigDecimal get(Object key) { return valuesMap.get(key); }
+
+        @Override
+        public boolean containsKey(Object key) { return valuesMap.containsKey(key); }
+
+        @Override
+        public int size() { return valuesMap.size(); }
+
+        @Override
+        public BigDecimal put(String key, BigDecimal value) {
+            BigDecimal previous = valuesMap.put(key, value);
+            revision.incrementAndGet();
+            return previous;
+        }
+
+        @Override
+        public BigDecimal remove(Object key) {
+            BigDecimal previous = valuesMap.remove(key);
+            revision.incrementAndGet();
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            valuesMap.clear();
+            revision.incrementAndGet();
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, BigDecimal>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<String, BigDecimal>> iterator() {
+                    Iterator<Entry<String, BigDecimal>> iterator = valuesMap.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() { return iterator.hasNext(); }
+
+                        @Override
+                        public Entry<String, BigDecimal> next() {
+                            Entry<String, BigDecimal> entry = iterator.next();
+                            return new SimpleEntry<>(entry) {
+                                @Override
+                                public BigDecimal setValue(BigDecimal value) {
+                                    super.setValue(value);
+                                    return put(entry.getKey(), value);
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                            revision.incrementAndGet();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() { return valuesMap.size(); }
+            };
         }
 
-        return BigDecimal.valueOf(0);
     }
 
 }
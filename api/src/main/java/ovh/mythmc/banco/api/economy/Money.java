@@ -0,0 +1,51 @@
+package ovh.mythmc.banco.api.economy;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point representation of money used internally by banco. Amounts are stored as a {@code long} count of
+ * minor units (for example, cents when the scale is 2) and only converted to {@link BigDecimal} at the API boundary.
+ * All arithmetic is checked and throws {@link ArithmeticException} on overflow.
+ */
+@UtilityClass
+public class Money {
+
+    public final int MAX_SCALE = 8;
+
+    private volatile int scale = 2;
+
+    private volatile long factor = 100;
+
+    public void setScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE)
+            throw new IllegalArgumentException("Scale must be between 0 and " + MAX_SCALE);
+
+        Money.factor = BigDecimal.TEN.pow(scale).longValueExact();
+        Money.scale = scale;
+    }
+
+    public int scale() { return scale; }
+
+    public long factor() { return factor; }
+
+    public long toUnits(final @NotNull BigDecimal value) {
+        return value.setScale(scale, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+
+    public long toUnits(double value) { return toUnits(BigDecimal.valueOf(value)); }
+
+    public @NotNull BigDecimal toDecimal(long units) { return BigDecimal.valueOf(units, scale); }
+
+    public double toDouble(long units) { return (double) units / factor; }
+
+    public long add(long a, long b) { return Math.addExact(a, b); }
+
+    public long subtract(long a, long b) { return Math.subtractExact(a, b); }
+
+    public long multiply(long units, long amount) { return Math.multiplyExact(units, amount); }
+
+}
@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.Money;
 
 import java.math.BigDecimal;
 import java.util.LinkedHashMap;
@@ -16,31 +17,56 @@ public class Account {
     @Getter(AccessLevel.PUBLIC)
     private final UUID uuid;
 
-    private BigDecimal amount;
+    // Both values are stored in minor units (see Money)
+    private long amount;
 
     @Setter(AccessLevel.PROTECTED)
-    private BigDecimal transactions;
+    private long transactions;
+
+    // Used to evict the least recently used accounts when lazy loading is enabled
+    @Getter(AccessLevel.NONE)
+    long lastAccess = System.nanoTime();
+
+    // Last known balance, which can be read from any thread without locking (see AccountManager#cachedUnits)
+    @Getter(AccessLevel.NONE)
+    volatile long balance;
+
+    // Set once the account is evicted from memory, so that operations on references that are still around are
+    // redirected to the account that is in memory (see AccountManager#live)
+    @Getter(AccessLevel.NONE)
+    volatile boolean evicted;
 
     public Account(UUID uuid,
                    BigDecimal amount,
                    BigDecimal transactions) {
+        this(uuid, Money.toUnits(amount), Money.toUnits(transactions));
+    }
+
+    public Account(UUID uuid,
+                   long amount,
+                   long transactions) {
         this.uuid = uuid;
         this.amount = amount;
         this.transactions = transactions;
+        this.balance = amount + transactions;
     }
 
     public BigDecimal amount() {
         return Banco.get().getAccountManager().amount(this);
     }
     
-    protected void setAmount(BigDecimal amount) {
-        this.amount = BigDecimal.valueOf(0).max(amount);
+    protected void setAmount(long amount) {
+        this.amount = Math.max(0, amount);
+    }
+
+    public final AccountSnapshot snapshot() {
+        return AccountManager.instance.snapshot(this);
     }
 
     public final Map<String, Object> serialize() {
         Map<String, Object> map = new LinkedHashMap<>();
-        map.put("amount", amount.doubleValue());
-        map.put("transactions", transactions.doubleValue());
+        map.put("amount", Money.toDouble(amount));
+        map.put("transactions", Money.toDouble(transactions));
         return map;
     }
 
@@ -0,0 +1,19 @@
+package ovh.mythmc.banco.api.economy.accounts;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public interface AccountListener {
+
+    // Balances are expressed in minor units (see Money)
+    void onBalanceChange(@NotNull Account account, long previous, long current);
+
+    // Called once per deposit, withdrawal or transfer (including the ones in a TransactionBatch), after balances
+    // changed. Deposits have no source and withdrawals have no target. Balance changes notified while a transaction
+    // is being applied (see AccountManager#isInTransaction) are part of it
+    default void onTransaction(@Nullable Account source, @Nullable Account target, long units) { }
+
+    // Called once per successful transfer (including the ones in a TransactionBatch), after both balances changed
+    default void onTransfer(@NotNull Account from, @NotNull Account to, long units) { }
+
+}
@@ -3,88 +3,731 @@ package ovh.mythmc.banco.api.economy.accounts;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.economy.BancoHelper;
+import ovh.mythmc.banco.api.economy.Money;
+import ovh.mythmc.banco.api.scheduler.BancoScheduler;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+/**
+ * Keeps track of accounts and their balances.
+ *
+ * <p><b>Threading:</b> every method can be called from any thread. Reads and writes of the same account are
+ * serialized through a fixed set of striped locks, and operations that involve several accounts (transfers and
+ * batches) lock all of them in a fixed order, so they are atomic and cannot deadlock with each other.
+ * {@link #cachedUnits(Account)} and {@link #cachedAmount(Account)} never block and return the balance as of the last
+ * read or write, which makes them the right choice for frequent lookups from other plugins.</p>
+ *
+ * <p>Online players' balances are backed by their inventories, which are only read and modified on the thread that
+ * owns the player (see {@link BancoScheduler}). Changes made from any other thread go to the account's ledger right
+ * away and are moved into the inventory on the owning thread shortly after, which can be awaited with
+ * {@link #reconcile(Account)}. Until then, other threads see the last known inventory value. Listeners are called
+ * while the account is locked, so they must not block or modify other accounts.</p>
+ *
+ * <p>With lazy loading, {@link #get(UUID)} reads accounts that are not in memory from storage on the calling thread.
+ * {@link #getAsync(UUID)} does that on a virtual thread instead. Inactive accounts may be evicted from memory, and
+ * operations on an evicted {@link Account} are applied to the account that is in memory, so no update is lost.</p>
+ */
 @SuppressWarnings("unused")
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class AccountManager {
 
     public static final AccountManager instance = new AccountManager();
-    private static final List<Account> accountsList = new ArrayList<>();
+    private static final Map<UUID, Account> accountsMap = new ConcurrentHashMap<>();
+    private static final List<AccountListener> listeners = new CopyOnWriteArrayList<>();
 
-    public void add(final @NotNull Account account) { accountsList.add(account); }
+    // Accounts that changed since they were last saved
+    private static final Map<UUID, Account> dirtyAccounts = new ConcurrentHashMap<>();
 
-    public void remove(final @NotNull Account account) { accountsList.remove(account); }
+    // Looks up accounts that are not in memory, if the storage backend supports it
+    private static volatile Function<UUID, Account> loader;
 
-    public List<Account> get() { return accountsList; }
+    // Accounts the loader did not find, which are not looked up again until the entry expires
+    private static final Map<UUID, Long> missingAccounts = new ConcurrentHashMap<>();
+    private static final long MISSING_ACCOUNT_TTL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int MAX_MISSING_ACCOUNTS = 4096;
 
+    // Storage lookups block, so they run on virtual threads instead of the caller's thread
+    private static final ExecutorService lookupExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Accounts whose ledger changes are waiting to be moved into the owning player's inventory
+    private static final Set<UUID> pendingReconciliation = ConcurrentHashMap.newKeySet();
+
+    // What is changing balances on the current thread (see withCause)
+    private static final ThreadLocal<String> cause = new ThreadLocal<>();
+
+    // How many deposits, withdrawals or transfers the current thread is applying
+    private static final ThreadLocal<int[]> transactionDepth = ThreadLocal.withInitial(() -> new int[1]);
+
+    public static final String DEFAULT_CAUSE = "api";
+
+    public static final String INVENTORY_CAUSE = "inventory";
+
+    private static final BalanceLeaderboard leaderboard = new BalanceLeaderboard();
+
+    private static volatile int maxAccounts = Integer.MAX_VALUE;
+    private static volatile Predicate<Account> evictable = account -> false;
+
+    // A fixed amount of locks is shared by every account, so memory use does not grow with the amount of accounts
+    private static final int LOCK_STRIPES = 64;
+    private static final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    static {
+        for (int i = 0; i < LOCK_STRIPES; i++)
+            locks[i] = new ReentrantLock();
+    }
+
+    public void add(final @NotNull Account account) {
+        missingAccounts.remove(account.getUuid());
+        accountsMap.put(account.getUuid(), account);
+        leaderboard.update(account.getUuid(), account.balance);
+        markDirty(account);
+    }
+
+    // Adds the account unless another one with the same UUID is already registered, in which case that one is returned
+    public Account addIfAbsent(final @NotNull Account account) {
+        Account existing = accountsMap.putIfAbsent(account.getUuid(), account);
+        if (existing != null)
+            return existing;
+
+        missingAccounts.remove(account.getUuid());
+        leaderboard.update(account.getUuid(), account.balance);
+        markDirty(account);
+        return account;
+    }
+
+    public void remove(final @NotNull Account account) {
+        if (accountsMap.remove(account.getUuid(), account))
+            leaderboard.remove(account.getUuid());
+    }
+
+    public void clear() {
+        accountsMap.clear();
+        missingAccounts.clear();
+        dirtyAccounts.clear();
+        leaderboard.clear();
+        setEvictionPolicy(Integer.MAX_VALUE, account -> false);
+    }
+
+    // Copy of the accounts in memory, use accounts() to iterate over them without copying
+    public List<Account> get() { return List.copyOf(accountsMap.values()); }
+
+    // Read-only live view of the accounts in memory
+    public Collection<Account> accounts() { return Collections.unmodifiableCollection(accountsMap.values()); }
+
+    // Blocks while the account is read from storage if lazy loading is enabled and it is not in memory. Accounts that
+    // do not exist are remembered for a few seconds, so repeated lookups of unknown players do not hit storage
     public Account get(UUID uuid) {
-        for (Account account : accountsList) {
-            if (account.getUuid().equals(uuid))
-                return account;
+        Account account = accountsMap.get(uuid);
+        if (account != null) {
+            account.lastAccess = System.nanoTime();
+            return account;
         }
 
-        return null;
+        Function<UUID, Account> loader = AccountManager.loader;
+        if (loader == null)
+            return null;
+
+        Long missingUntil = missingAccounts.get(uuid);
+        if (missingUntil != null && missingUntil - System.nanoTime() > 0)
+            return null;
+
+        Account loaded = loader.apply(uuid);
+        if (loaded == null) {
+            if (missingAccounts.size() >= MAX_MISSING_ACCOUNTS)
+                missingAccounts.clear();
+
+            missingAccounts.put(uuid, System.nanoTime() + MISSING_ACCOUNT_TTL_NANOS);
+            return null;
+        }
+
+        Account previous = accountsMap.putIfAbsent(uuid, loaded);
+        if (previous != null)
+            return previous;
+
+        // changed() only reaches the leaderboard when the balance moves, so loaded accounts are ranked right away
+        leaderboard.update(uuid, loaded.balance);
+
+        // Leave some headroom so that eviction does not run on every single lookup
+        if (accountsMap.size() > maxAccounts + maxAccounts / 4)
+            evict();
+
+        return loaded;
     }
 
+    // Same as get(UUID), but accounts that are not in memory are looked up without blocking the calling thread
+    public @NotNull CompletableFuture<Account> getAsync(final @NotNull UUID uuid) {
+        if (loader == null || accountsMap.containsKey(uuid))
+            return CompletableFuture.completedFuture(get(uuid));
+
+        return CompletableFuture.supplyAsync(() -> get(uuid), lookupExecutor);
+    }
+
+    public void setLoader(final @Nullable Function<UUID, Account> loader) { AccountManager.loader = loader; }
+
+    public @NotNull BalanceLeaderboard getLeaderboard() { return leaderboard; }
+
+    // Money supply, average, median and top 1% share of every known account. Kept up to date on every balance change,
+    // so it can be called as often as needed
+    public @NotNull EconomyStatistics statistics() { return leaderboard.statistics(); }
+
+    // Adds an account that is stored but not loaded to the leaderboard. Used when accounts are loaded lazily
+    public void index(final @NotNull AccountSnapshot snapshot) {
+        if (!accountsMap.containsKey(snapshot.uuid()))
+            leaderboard.update(snapshot.uuid(), Money.add(snapshot.amount(), snapshot.transactions()));
+    }
+
+    public void setEvictionPolicy(int maxAccounts, final @NotNull Predicate<Account> evictable) {
+        AccountManager.maxAccounts = maxAccounts;
+        AccountManager.evictable = evictable;
+    }
+
+    // Removes the least recently used evictable accounts until no more than the configured maximum remain in memory
+    public int evict() {
+        int excess = accountsMap.size() - maxAccounts;
+        if (excess <= 0)
+            return 0;
+
+        List<Account> candidates = new ArrayList<>();
+        for (Account account : accountsMap.values()) {
+            if (evictable.test(account))
+                candidates.add(account);
+        }
+
+        candidates.sort(Comparator.comparingLong(account -> account.lastAccess));
+
+        int evicted = 0;
+        for (Account account : candidates) {
+            if (evicted >= excess)
+                break;
+
+            // Accounts that are in use right now are skipped rather than waited for
+            long lastAccess = account.lastAccess;
+            ReentrantLock lock = lock(account);
+            if (!lock.tryLock())
+                continue;
+
+            try {
+                if (account.lastAccess == lastAccess && evictable.test(account) && accountsMap.remove(account.getUuid(), account)) {
+                    account.evicted = true;
+                    evicted++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return evicted;
+    }
+
+    public void markDirty(final @NotNull Account account) { dirtyAccounts.put(account.getUuid(), account); }
+
+    public boolean isDirty(final @NotNull Account account) { return dirtyAccounts.containsKey(account.getUuid()); }
+
+    public boolean hasDirty() { return !dirtyAccounts.isEmpty(); }
+
+    // Takes every dirty account out of the dirty set. Accounts that change afterward are marked dirty again
+    public @NotNull List<Account> drainDirty() {
+        List<Account> drained = new ArrayList<>();
+        Iterator<Account> iterator = dirtyAccounts.values().iterator();
+        while (iterator.hasNext()) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+
+        return drained;
+    }
+
+    // Marks accounts that could not be saved as dirty again, unless they have been replaced in the meantime
+    public void restoreDirty(final @NotNull Collection<Account> accounts) {
+        accounts.forEach(account -> dirtyAccounts.putIfAbsent(account.getUuid(), account));
+    }
+
+    public void registerListener(final @NotNull AccountListener listener) { listeners.add(listener); }
+
+    public void unregisterListener(final @NotNull AccountListener listener) { listeners.remove(listener); }
+
     public void deposit(final @NotNull Account account, BigDecimal amount) {
-        set(account, account.amount().add(amount));
+        deposit(account, Money.toUnits(amount));
+    }
+
+    public void deposit(final @NotNull Account account, long units) {
+        ReentrantLock lock = lock(account);
+        lock.lock();
+        try {
+            Account live = live(account);
+            long balance = units(live);
+            transaction(() -> set(live, Money.add(balance, units)));
+
+            if (units != 0)
+                notifyTransaction(units > 0 ? null : live, units > 0 ? live : null, Math.abs(units));
+        } finally {
+            lock.unlock();
+        }
     }
 
     public void withdraw(final @NotNull Account account, BigDecimal amount) {
-        set(account, account.amount().subtract(amount));
+        withdraw(account, Money.toUnits(amount));
+    }
+
+    public void withdraw(final @NotNull Account account, long units) {
+        ReentrantLock lock = lock(account);
+        lock.lock();
+        try {
+            Account live = live(account);
+            long balance = units(live);
+            transaction(() -> set(live, Money.subtract(balance, units)));
+
+            if (units != 0)
+                notifyTransaction(units > 0 ? live : null, units > 0 ? null : live, Math.abs(units));
+        } finally {
+            lock.unlock();
+        }
     }
 
     public void set(final @NotNull Account account, BigDecimal amount) {
-        if (account.amount().compareTo(amount) == 0)
+        set(account, Money.toUnits(amount));
+    }
+
+    public void set(final @NotNull Account account, long units) {
+        ReentrantLock lock = lock(account);
+        lock.lock();
+        try {
+            Account live = live(account);
+            setLocked(live, units(live), units);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The account's stripe must be held, and current must have been read while holding it
+    private void setLocked(final @NotNull Account account, long current, long units) {
+        if (current == units)
             return;
 
-        if (account.amount().compareTo(amount) < 0) {
-            if (BancoHelper.get().isOnline(account.getUuid())) {
-                account.setTransactions(BigDecimal.valueOf(0));
+        try {
+            apply(account, current, units);
+        } finally {
+            refresh(account);
+            changed(account, current);
+        }
+    }
+
+    private void apply(final @NotNull Account account, long current, long units) {
+        boolean inventoryAccessible = isInventoryAccessible(account);
+        if (!inventoryAccessible && BancoHelper.get().isOnline(account.getUuid()))
+            scheduleReconciliation(account);
+
+        if (current < units) {
+            if (inventoryAccessible) {
+                account.setTransactions(0);
+                refresh(account);
 
-                BigDecimal remainder = BancoHelper.get().add(account.getUuid(), amount.subtract(account.amount()));
-                account.setTransactions(account.getTransactions().add(remainder.setScale(2, RoundingMode.FLOOR)));
+                long remainder = BancoHelper.get().add(account.getUuid(), Money.subtract(units, stored(account)));
+                account.setTransactions(Money.add(account.getTransactions(), remainder));
                 return;
             }
 
-            account.setTransactions(account.getTransactions().add(amount.subtract(account.amount())));
+            account.setTransactions(Money.add(account.getTransactions(), Money.subtract(units, current)));
         } else {
-            if (BancoHelper.get().isOnline(account.getUuid())) {
-                account.setTransactions(BigDecimal.valueOf(0));
-                BigDecimal toRemove = account.amount().subtract(amount);
-                BigDecimal remainder = BancoHelper.get().remove(account.getUuid(), toRemove);
+            if (inventoryAccessible) {
+                account.setTransactions(0);
+                refresh(account);
+                long toRemove = Money.subtract(stored(account), units);
+                long remainder = BancoHelper.get().remove(account.getUuid(), toRemove);
 
-                account.setTransactions(account.getTransactions().subtract(remainder.setScale(2, RoundingMode.FLOOR)));
+                account.setTransactions(Money.subtract(account.getTransactions(), remainder));
                 return;
             }
 
-            account.setTransactions(account.getTransactions().subtract(account.amount().subtract(amount)));
+            account.setTransactions(Money.subtract(account.getTransactions(), Money.subtract(current, units)));
         }
     }
 
+    public @NotNull TransactionBatch.Result transfer(final @NotNull Account from, final @NotNull Account to, BigDecimal amount) {
+        return transfer(from, to, Money.toUnits(amount));
+    }
+
+    // Both balances are read once and both legs are applied as a unit. If the second leg fails, both balances are
+    // rolled back before the error is rethrown
+    public @NotNull TransactionBatch.Result transfer(final @NotNull Account from, final @NotNull Account to, long units) {
+        if (units <= 0 || from.getUuid().equals(to.getUuid()))
+            return TransactionBatch.Result.INVALID;
+
+        int[] stripes = lockAll(List.of(from, to));
+        try {
+            return transferLocked(from, to, units);
+        } finally {
+            unlockAll(stripes);
+        }
+    }
+
+    private @NotNull TransactionBatch.Result transferLocked(final @NotNull Account from, final @NotNull Account to, long units) {
+        Account source = live(from);
+        Account target = live(to);
+
+        long fromBalance = units(source);
+        if (fromBalance < units)
+            return TransactionBatch.Result.INSUFFICIENT_FUNDS;
+
+        long toBalance = units(target);
+        if (toBalance > Long.MAX_VALUE - units)
+            return TransactionBatch.Result.INVALID;
+
+        transaction(() -> {
+            set(source, fromBalance - units);
+            try {
+                set(target, toBalance + units);
+            } catch (RuntimeException e) {
+                restore(source, fromBalance, e);
+                restore(target, toBalance, e);
+                throw e;
+            }
+        });
+
+        notifyTransaction(source, target, units);
+        for (AccountListener listener : listeners)
+            listener.onTransfer(source, target, units);
+
+        return TransactionBatch.Result.SUCCESS;
+    }
+
+    // Rolls a balance back through the ledger alone, which unlike the inventory cannot fail halfway. Anything that
+    // goes wrong anyway is attached to the original failure instead of replacing it
+    private void restore(final @NotNull Account account, long balance, final @NotNull RuntimeException failure) {
+        long previous = stored(account);
+        try {
+            account.setTransactions(Money.add(account.getTransactions(), Money.subtract(balance, previous)));
+            changed(account, previous);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    public @NotNull TransactionBatch batch() { return new TransactionBatch(this); }
+
+    // Entries are checked in order against a running balance, which is read once per account. Only the net change
+    // of each account is applied afterward, so every account is mutated (and marked dirty) exactly once
+    @NotNull List<TransactionBatch.Result> apply(final @NotNull TransactionBatch batch) {
+        List<Account> involved = new ArrayList<>();
+        for (TransactionBatch.Entry entry : batch.entries()) {
+            if (entry.source() != null)
+                involved.add(entry.source());
+            if (entry.target() != null)
+                involved.add(entry.target());
+        }
+
+        int[] stripes = lockAll(involved);
+        try {
+            return applyLocked(batch);
+        } finally {
+            unlockAll(stripes);
+        }
+    }
+
+    private @NotNull List<TransactionBatch.Result> applyLocked(final @NotNull TransactionBatch batch) {
+        Map<UUID, Account> accounts = new LinkedHashMap<>();
+        Map<UUID, long[]> balances = new HashMap<>(); // initial and running balance
+        List<TransactionBatch.Result> results = new ArrayList<>(batch.size());
+
+        for (TransactionBatch.Entry entry : batch.entries()) {
+            if (entry.units() <= 0 || entry.source() != null && entry.target() != null
+                    && entry.source().getUuid().equals(entry.target().getUuid())) {
+                results.add(TransactionBatch.Result.INVALID);
+                continue;
+            }
+
+            long[] source = entry.source() == null ? null : balance(entry.source(), accounts, balances);
+            long[] target = entry.target() == null ? null : balance(entry.target(), accounts, balances);
+
+            if (source != null && source[1] < entry.units()) {
+                results.add(TransactionBatch.Result.INSUFFICIENT_FUNDS);
+                continue;
+            }
+
+            if (target != null && target[1] > Long.MAX_VALUE - entry.units()) {
+                results.add(TransactionBatch.Result.INVALID);
+                continue;
+            }
+
+            if (source != null)
+                source[1] -= entry.units();
+            if (target != null)
+                target[1] += entry.units();
+
+            results.add(TransactionBatch.Result.SUCCESS);
+        }
+
+        // Every stripe is still held, so the balances read during validation are current
+        transaction(() -> accounts.forEach((uuid, account) -> {
+            long[] balance = balances.get(uuid);
+            setLocked(account, balance[0], balance[1]);
+        }));
+
+        for (int i = 0; i < results.size(); i++) {
+            TransactionBatch.Entry entry = batch.entries().get(i);
+            if (results.get(i) != TransactionBatch.Result.SUCCESS)
+                continue;
+
+            Account source = entry.source() == null ? null : accounts.get(entry.source().getUuid());
+            Account target = entry.target() == null ? null : accounts.get(entry.target().getUuid());
+            notifyTransaction(source, target, entry.units());
+            if (source != null && target != null) {
+                for (AccountListener listener : listeners)
+                    listener.onTransfer(source, target, entry.units());
+            }
+        }
+
+        return results;
+    }
+
+    // Balance changes made by the action are notified through onTransaction by the caller, so listeners can tell
+    // them apart from the ones that are not part of any transaction
+    private static void transaction(final @NotNull Runnable action) {
+        int[] depth = transactionDepth.get();
+        depth[0]++;
+        try {
+            action.run();
+        } finally {
+            depth[0]--;
+        }
+    }
+
+    private void notifyTransaction(final @Nullable Account source, final @Nullable Account target, long units) {
+        for (AccountListener listener : listeners)
+            listener.onTransaction(source, target, units);
+    }
+
+    // Whether balance changes notified right now are part of a deposit, withdrawal or transfer
+    public boolean isInTransaction() { return transactionDepth.get()[0] > 0; }
+
+    // Describes what changes balances on the current thread until the returned scope is closed, which is recorded
+    // in the transaction ledger:
+    // try (AccountManager.Cause ignored = Banco.get().getAccountManager().withCause("shop")) { ... }
+    public @NotNull Cause withCause(final @NotNull String description) {
+        Cause scope = new Cause(cause.get());
+        cause.set(description);
+        return scope;
+    }
+
+    public @NotNull String cause() { return Objects.requireNonNullElse(cause.get(), DEFAULT_CAUSE); }
+
+    public static final class Cause implements AutoCloseable {
+
+        private final String previous;
+
+        private Cause(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                cause.remove();
+            } else {
+                cause.set(previous);
+            }
+        }
+
+    }
+
+    private long[] balance(final @NotNull Account account, Map<UUID, Account> accounts, Map<UUID, long[]> balances) {
+        return balances.computeIfAbsent(account.getUuid(), uuid -> {
+            Account live = live(account);
+            accounts.put(uuid, live);
+            long units = units(live);
+            return new long[] { units, units };
+        });
+    }
+
     public boolean has(final @NotNull Account account, BigDecimal amount) {
-        return account.amount().compareTo(amount) >= 0;
+        return units(account) >= Money.toUnits(amount);
+    }
+
+    public boolean has(final @NotNull Account account, long units) {
+        return units(account) >= units;
     }
 
     public BigDecimal amount(final @NotNull Account account) {
-        if (BancoHelper.get().isOnline(account.getUuid()))
-            account.setAmount(BancoHelper.get().getInventoryValue(account.getUuid()));
+        return Money.toDecimal(units(account));
+    }
+
+    // Same as amount(Account) but in minor units, which avoids allocating on the hot path
+    public long units(final @NotNull Account account) {
+        ReentrantLock lock = lock(account);
+        lock.lock();
+        try {
+            Account live = live(account);
+            long previous = stored(live);
+            refresh(live);
+
+            // Anything that changed here was moved in or out of the inventory by the player
+            if (stored(live) == previous) {
+                changed(live, previous);
+            } else {
+                try (Cause ignored = withCause(INVENTORY_CAUSE)) {
+                    changed(live, previous);
+                }
+            }
+
+            return stored(live);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Last known balance in minor units. Never blocks, but does not pick up inventory changes that have not been
+    // read yet by any other method
+    public long cachedUnits(final @NotNull Account account) { return account.balance; }
+
+    public BigDecimal cachedAmount(final @NotNull Account account) { return Money.toDecimal(account.balance); }
+
+    @NotNull AccountSnapshot snapshot(final @NotNull Account account) {
+        ReentrantLock lock = lock(account);
+        lock.lock();
+        try {
+            return new AccountSnapshot(account.getUuid(), account.getAmount(), account.getTransactions());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Online players' balances are backed by their inventories, which are only read on the thread that owns them
+    private void refresh(final @NotNull Account account) {
+        if (isInventoryAccessible(account))
+            account.setAmount(BancoHelper.get().getInventoryUnits(account.getUuid()));
+    }
+
+    private boolean isInventoryAccessible(final @NotNull Account account) {
+        return BancoHelper.get().isOnline(account.getUuid()) && Banco.get().getScheduler().isOwnedByCurrentThread(account.getUuid());
+    }
+
+    // Moves ledger changes into the player's inventory on the thread that owns the player. Completes with the
+    // resulting balance in minor units
+    public @NotNull CompletableFuture<Long> reconcile(final @NotNull Account account) {
+        return Banco.get().getScheduler().runForPlayer(account.getUuid(), () -> {
+            updateTransactions(account);
+            return units(account);
+        });
+    }
+
+    private void scheduleReconciliation(final @NotNull Account account) {
+        if (!pendingReconciliation.add(account.getUuid()))
+            return;
 
-        return account.getAmount().add(account.getTransactions());
+        Banco.get().getScheduler().runForPlayer(account.getUuid(), () -> {
+            pendingReconciliation.remove(account.getUuid());
+
+            // The player left before this could run, so the changes simply stay in the ledger
+            if (Banco.get().getScheduler().isOwnedByCurrentThread(account.getUuid()))
+                updateTransactions(account);
+
+            return null;
+        }).exceptionally(throwable -> {
+            pendingReconciliation.remove(account.getUuid());
+            return null;
+        });
+    }
+
+    private long stored(final @NotNull Account account) {
+        return Money.add(account.getAmount(), account.getTransactions());
+    }
+
+    private void changed(final @NotNull Account account, long previous) {
+        long current = stored(account);
+        account.balance = current;
+        if (current == previous)
+            return;
+
+        leaderboard.update(account.getUuid(), current);
+        markDirty(account);
+        for (AccountListener listener : listeners)
+            listener.onBalanceChange(account, previous, current);
     }
 
     public void updateTransactions(final @NotNull Account account) {
-        BigDecimal amount = account.amount();
-        account.setTransactions(BigDecimal.valueOf(0));
+        ReentrantLock lock = lock(account);
+        lock.lock();
+        try {
+            Account live = live(account);
+            long amount = units(live);
+            live.setTransactions(0);
+
+            try {
+                long current = stored(live);
+                if (current != amount)
+                    apply(live, current, amount);
+            } finally {
+                refresh(live);
+                changed(live, amount);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Evicted accounts were saved before being evicted, so an account that is still referenced somewhere can be put
+    // back in memory, unless it has been loaded again in the meantime. Must be called with the account locked
+    private static @NotNull Account live(final @NotNull Account account) {
+        if (!account.evicted)
+            return account;
+
+        Account current = accountsMap.putIfAbsent(account.getUuid(), account);
+        if (current != null)
+            return current;
+
+        account.evicted = false;
+        account.lastAccess = System.nanoTime();
+        return account;
+    }
+
+    private static int stripe(final @NotNull UUID uuid) {
+        int hash = uuid.hashCode();
+        return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    private static ReentrantLock lock(final @NotNull Account account) { return locks[stripe(account.getUuid())]; }
+
+    // Locks are always taken in ascending order, so two threads locking overlapping accounts cannot deadlock
+    private static int[] lockAll(final @NotNull Collection<Account> accounts) {
+        int[] stripes = accounts.stream()
+                .mapToInt(account -> stripe(account.getUuid()))
+                .distinct()
+                .sorted()
+                .toArray();
+
+        for (int stripe : stripes)
+            locks[stripe].lock();
+
+        return stripes;
+    }
 
-        set(account, amount);
+    private static void unlockAll(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--)
+            locks[stripes[i]].unlock();
     }
 
 }
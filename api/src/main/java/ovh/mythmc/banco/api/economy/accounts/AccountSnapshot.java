@@ -0,0 +1,14 @@
+package ovh.mythmc.banco.api.economy.accounts;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+// Immutable copy of an account's stored values in minor units (see Money)
+public record AccountSnapshot(@NotNull UUID uuid,
+                              long amount,
+                              long transactions) {
+
+    public long balance() { return amount + transactions; }
+
+}
@@ -0,0 +1,318 @@
+package ovh.mythmc.banco.api.economy.accounts;
+
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.economy.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Accounts ordered by balance, highest first. Balances are updated by {@link AccountManager} every time they change,
+ * so ranks, pages and {@link EconomyStatistics} are answered in O(log n) without reading any balance or inventory.
+ * Accounts that are unloaded from memory keep their place. When accounts are loaded lazily, stored accounts are only
+ * included once they have been loaded, unless {@code storage.lazy-loading.index-leaderboard} is enabled.
+ *
+ * <p>Changes are not applied to the tree right away. They are queued without locking, since they come from inside
+ * the account locks, and applied by whichever thread reads the leaderboard next.</p>
+ *
+ * <p>Online players' balances are the ones last read by banco, which means that coins picked up since then are not
+ * taken into account until something reads the balance again.</p>
+ */
+public final class BalanceLeaderboard {
+
+    // Treap where every node knows the size and total balance of its subtree, which is what makes ranks, pages and
+    // statistics O(log n)
+    private static final class Node {
+
+        private final UUID uuid;
+
+        private final long units;
+
+        private final int priority;
+
+        private int size = 1;
+
+        private long sum;
+
+        private Node left;
+
+        private Node right;
+
+        private Node(UUID uuid, long units, int priority) {
+            this.uuid = uuid;
+            this.units = units;
+            this.priority = priority;
+            this.sum = units;
+        }
+
+    }
+
+    public record Entry(int rank,
+                        @NotNull UUID uuid,
+                        long units) {
+
+        public @NotNull BigDecimal amount() { return Money.toDecimal(units); }
+
+    }
+
+    // Queued in place of a node when an account is removed
+    private static final Node REMOVED = new Node(new UUID(0, 0), 0, 0);
+
+    // Latest change of every account that has not been applied yet. Only the last one matters, so this never holds
+    // more than one change per account
+    private final Map<UUID, Node> pending = new ConcurrentHashMap<>();
+
+    private final Map<UUID, Node> nodes = new HashMap<>();
+
+    private Node root;
+
+    BalanceLeaderboard() { }
+
+    void update(final @NotNull UUID uuid, long units) {
+        pending.put(uuid, new Node(uuid, units, ThreadLocalRandom.current().nextInt()));
+    }
+
+    void remove(final @NotNull UUID uuid) {
+        pending.put(uuid, REMOVED);
+    }
+
+    synchronized void clear() {
+        pending.clear();
+        nodes.clear();
+        root = null;
+    }
+
+    // Applies queued changes. Called by every read before it looks at the tree
+    private void drain() {
+        for (UUID uuid : pending.keySet()) {
+            Node node = pending.remove(uuid);
+            if (node == null)
+                continue;
+
+            Node previous = node == REMOVED ? nodes.remove(uuid) : nodes.get(uuid);
+            if (previous != null) {
+                if (node != REMOVED && previous.units == node.units)
+                    continue;
+
+                root = remove(root, previous);
+            }
+
+            if (node != REMOVED) {
+                nodes.put(uuid, node);
+                root = insert(root, node);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        drain();
+        return nodes.size();
+    }
+
+    // Position of the account starting from 1, or 0 if it has no account
+    public synchronized int rank(final @NotNull UUID uuid) {
+        drain();
+        Node node = nodes.get(uuid);
+        if (node == null)
+            return 0;
+
+        int before = 0;
+        Node current = root;
+        while (current != node) {
+            if (compare(node, current) < 0) {
+                current = current.left;
+            } else {
+                before += size(current.left) + 1;
+                current = current.right;
+            }
+        }
+
+        return before + size(node.left) + 1;
+    }
+
+    // Pages start from 1. Pages past the end are empty
+    public synchronized @NotNull List<Entry> page(int page, int pageSize) {
+        if (page < 1 || pageSize < 1)
+            throw new IllegalArgumentException("Page and page size must be positive");
+
+        drain();
+        long from = (long) (page - 1) * pageSize;
+        if (from >= size())
+            return List.of();
+
+        List<Entry> entries = new ArrayList<>(pageSize);
+        collect(root, (int) from, (int) Math.min(from + pageSize, size()), 0, entries);
+        return entries;
+    }
+
+    public @NotNull List<Entry> top(int amount) { return page(1, amount); }
+
+    public int pages(int pageSize) { return Math.max(1, (size() + pageSize - 1) / pageSize); }
+
+    public synchronized @NotNull EconomyStatistics statistics() {
+        drain();
+        int count = size(root);
+        if (count == 0)
+            return new EconomyStatistics(0, 0, 0, 0, 0);
+
+        long total = sum(root);
+        long median = count % 2 == 1
+                ? select(root, count / 2).units
+                : mean(select(root, count / 2 - 1).units, select(root, count / 2).units);
+
+        // Top 1% of accounts, rounded up so that there is always at least one
+        int top = (count + 99) / 100;
+
+        return new EconomyStatistics(count, total, total / count, median, sumOfFirst(root, top));
+    }
+
+    // Node at the given position, starting from 0
+    private static Node select(Node node, int index) {
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    // Total balance of the first amount nodes
+    private static long sumOfFirst(Node node, int amount) {
+        long sum = 0;
+        while (node != null && amount > 0) {
+            int leftSize = size(node.left);
+            if (amount <= leftSize) {
+                node = node.left;
+            } else {
+                sum = add(sum, add(sum(node.left), node.units));
+                amount -= leftSize + 1;
+                node = node.right;
+            }
+        }
+
+        return sum;
+    }
+
+    // Adds the nodes between from (inclusive) and to (exclusive), skipping subtrees outside of that range
+    private static void collect(Node node, int from, int to, int offset, List<Entry> entries) {
+        if (node == null || offset >= to || offset + node.size <= from)
+            return;
+
+        collect(node.left, from, to, offset, entries);
+
+        int index = offset + size(node.left);
+        if (index >= from && index < to)
+            entries.add(new Entry(index + 1, node.uuid, node.units));
+
+        collect(node.right, from, to, index + 1, entries);
+    }
+
+    // Highest balances first. Ties are broken by UUID so that every account has a stable position
+    private static int compare(Node a, Node b) {
+        int result = Long.compare(b.units, a.units);
+        return result != 0 ? result : a.uuid.compareTo(b.uuid);
+    }
+
+    private static int size(Node node) { return node == null ? 0 : node.size; }
+
+    private static long sum(Node node) { return node == null ? 0 : node.sum; }
+
+    // Totals are only informative, so they stop at the long range instead of wrapping around or failing the update
+    private static long add(long a, long b) {
+        long result = a + b;
+        if (((a ^ result) & (b ^ result)) < 0)
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+
+        return result;
+    }
+
+    // Same as (a + b) / 2 without overflowing
+    private static long mean(long a, long b) {
+        return a / 2 + b / 2 + (a % 2 + b % 2) / 2;
+    }
+
+    private static Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        node.sum = add(add(sum(node.left), sum(node.right)), node.units);
+        return node;
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null)
+            return inserted;
+
+        if (inserted.priority > node.priority) {
+            Node[] parts = split(node, inserted);
+            inserted.left = parts[0];
+            inserted.right = parts[1];
+            return update(inserted);
+        }
+
+        if (compare(inserted, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+
+        return update(node);
+    }
+
+    private static Node remove(Node node, Node removed) {
+        if (node == removed)
+            return merge(node.left, node.right);
+
+        if (compare(removed, node) < 0) {
+            node.left = remove(node.left, removed);
+        } else {
+            node.right = remove(node.right, removed);
+        }
+
+        return update(node);
+    }
+
+    // Splits the tree into the nodes that go before the given one and the nodes that go after it
+    private static Node[] split(Node node, Node pivot) {
+        if (node == null)
+            return new Node[2];
+
+        if (compare(node, pivot) < 0) {
+            Node[] parts = split(node.right, pivot);
+            node.right = parts[0];
+            parts[0] = update(node);
+            return parts;
+        }
+
+        Node[] parts = split(node.left, pivot);
+        node.left = parts[1];
+        parts[1] = update(node);
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null)
+            return right;
+
+        if (right == null)
+            return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+}
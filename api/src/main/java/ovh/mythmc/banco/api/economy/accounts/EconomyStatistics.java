@@ -0,0 +1,31 @@
+package ovh.mythmc.banco.api.economy.accounts;
+
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.economy.Money;
+
+import java.math.BigDecimal;
+
+// Amounts are expressed in minor units (see Money)
+public record EconomyStatistics(int accounts,
+                                long totalUnits,
+                                long averageUnits,
+                                long medianUnits,
+                                long topOnePercentUnits) {
+
+    public @NotNull BigDecimal total() { return Money.toDecimal(totalUnits); }
+
+    public @NotNull BigDecimal average() { return Money.toDecimal(averageUnits); }
+
+    public @NotNull BigDecimal median() { return Money.toDecimal(medianUnits); }
+
+    public @NotNull BigDecimal topOnePercent() { return Money.toDecimal(topOnePercentUnits); }
+
+    // Share of the money supply held by the richest 1% of accounts, between 0 and 1
+    public double topOnePercentShare() {
+        if (totalUnits <= 0)
+            return 0;
+
+        return (double) topOnePercentUnits / totalUnits;
+    }
+
+}
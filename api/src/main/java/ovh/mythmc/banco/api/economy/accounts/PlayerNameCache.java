@@ -0,0 +1,91 @@
+package ovh.mythmc.banco.api.economy.accounts;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bidirectional name and UUID lookup for players that joined the server. Names are matched case-insensitively, the
+ * least recently used players are dropped once the cache is full, and the contents are saved alongside account data
+ * so that lookups keep working after a restart without asking Bukkit, which reads from disk for unknown players.
+ */
+public final class PlayerNameCache {
+
+    public static final PlayerNameCache instance = new PlayerNameCache();
+
+    private static final int MAX_SIZE = 10_000;
+
+    private final Map<String, UUID> uuidsByName = new HashMap<>();
+
+    // Access-ordered, so the least recently used player comes first
+    private final Map<UUID, String> namesByUuid = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+            if (size() <= MAX_SIZE)
+                return false;
+
+            uuidsByName.remove(key(eldest.getValue()), eldest.getKey());
+            return true;
+        }
+    };
+
+    private boolean dirty;
+
+    private PlayerNameCache() { }
+
+    public synchronized void put(final @NotNull String name, final @NotNull UUID uuid) {
+        String previousName = namesByUuid.put(uuid, name);
+        if (name.equals(previousName))
+            return;
+
+        // The player changed their name
+        if (previousName != null)
+            uuidsByName.remove(key(previousName), uuid);
+
+        uuidsByName.put(key(name), uuid);
+        dirty = true;
+    }
+
+    public synchronized @Nullable UUID getUuid(final @NotNull String name) {
+        UUID uuid = uuidsByName.get(key(name));
+        if (uuid != null)
+            namesByUuid.get(uuid); // Marks the entry as recently used
+
+        return uuid;
+    }
+
+    public synchronized @Nullable String getName(final @NotNull UUID uuid) {
+        return namesByUuid.get(uuid);
+    }
+
+    public synchronized int size() { return namesByUuid.size(); }
+
+    public synchronized void clear() {
+        uuidsByName.clear();
+        namesByUuid.clear();
+        dirty = false;
+    }
+
+    // Returns every entry from least to most recently used if anything changed since the last call, or null otherwise
+    public synchronized @Nullable List<Map.Entry<UUID, String>> drainChanges() {
+        if (!dirty)
+            return null;
+
+        dirty = false;
+        List<Map.Entry<UUID, String>> entries = new ArrayList<>(namesByUuid.size());
+        namesByUuid.forEach((uuid, name) -> entries.add(Map.entry(uuid, name)));
+        return entries;
+    }
+
+    public synchronized void markDirty() { dirty = true; }
+
+    private static String key(final @NotNull String name) { return name.toLowerCase(Locale.ROOT); }
+
+}
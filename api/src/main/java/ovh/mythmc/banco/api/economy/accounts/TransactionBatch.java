@@ -0,0 +1,79 @@
+package ovh.mythmc.banco.api.economy.accounts;
+
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.economy.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Groups many deposits, withdrawals and transfers so that they can be applied at once. Entries are validated in
+ * order against a running balance, then every account's net change is applied with a single mutation, which means
+ * an online player's inventory is only touched once no matter how many entries involve them.
+ *
+ * <pre>{@code
+ * List<TransactionBatch.Result> results = Banco.get().getAccountManager().batch()
+ *         .deposit(seller, income)
+ *         .withdraw(buyer, price)
+ *         .transfer(buyer, seller, tax)
+ *         .apply();
+ * }</pre>
+ */
+public final class TransactionBatch {
+
+    private final AccountManager accountManager;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    TransactionBatch(final @NotNull AccountManager accountManager) {
+        this.accountManager = accountManager;
+    }
+
+    public TransactionBatch deposit(final @NotNull Account account, BigDecimal amount) {
+        return deposit(account, Money.toUnits(amount));
+    }
+
+    public TransactionBatch deposit(final @NotNull Account account, long units) {
+        entries.add(new Entry(null, account, units));
+        return this;
+    }
+
+    public TransactionBatch withdraw(final @NotNull Account account, BigDecimal amount) {
+        return withdraw(account, Money.toUnits(amount));
+    }
+
+    public TransactionBatch withdraw(final @NotNull Account account, long units) {
+        entries.add(new Entry(account, null, units));
+        return this;
+    }
+
+    public TransactionBatch transfer(final @NotNull Account from, final @NotNull Account to, BigDecimal amount) {
+        return transfer(from, to, Money.toUnits(amount));
+    }
+
+    public TransactionBatch transfer(final @NotNull Account from, final @NotNull Account to, long units) {
+        entries.add(new Entry(from, to, units));
+        return this;
+    }
+
+    public int size() { return entries.size(); }
+
+    public @NotNull List<Entry> entries() { return Collections.unmodifiableList(entries); }
+
+    // Returns one result per entry, in the order entries were added
+    public @NotNull List<Result> apply() { return accountManager.apply(this); }
+
+    // Money is taken from source and given to target. Deposits have no source and withdrawals have no target
+    public record Entry(Account source,
+                        Account target,
+                        long units) { }
+
+    public enum Result {
+        SUCCESS,
+        INSUFFICIENT_FUNDS,
+        INVALID
+    }
+
+}
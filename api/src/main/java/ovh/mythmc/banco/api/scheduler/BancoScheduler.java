@@ -0,0 +1,22 @@
+package ovh.mythmc.banco.api.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks on the thread that owns a player. On Folia every player belongs to a region thread, while on other
+ * platforms the main thread owns every player. Offline players are not owned by any thread.
+ */
+public interface BancoScheduler {
+
+    // Whether the current thread may touch the given player's inventory. Always true for offline players
+    boolean isOwnedByCurrentThread(@NotNull UUID uuid);
+
+    // Runs the task on the thread that owns the given player, or right away if that is the current thread or the
+    // player is offline. If the player goes offline before the task runs, it runs on whichever thread noticed
+    @NotNull <T> CompletableFuture<T> runForPlayer(@NotNull UUID uuid, @NotNull Supplier<T> task);
+
+}
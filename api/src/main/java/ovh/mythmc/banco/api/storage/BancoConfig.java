@@ -7,6 +7,8 @@ import org.jetbrains.annotations.NotNull;
 import org.simpleyaml.configuration.ConfigurationSection;
 import org.simpleyaml.configuration.file.YamlFile;
 import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.CurrencyFormatter;
+import ovh.mythmc.banco.api.economy.Money;
 import ovh.mythmc.banco.api.logger.LoggerWrapper;
 
 import java.io.File;
@@ -70,10 +72,22 @@ public final class BancoConfig {
                 yamlFile.getString("currency.symbol", "$"),
                 yamlFile.getBoolean("currency.remove-drops", true),
                 yamlFile.getBoolean("currency.count-ender-chest", true),
-                yamlFile.getString("currency.format", "#,###.#"),
+                yamlFile.getString("currency.format", CurrencyFormatter.DEFAULT_PATTERN),
+                yamlFile.getString("currency.locale", ""),
+                yamlFile.getInt("currency.decimal-places", 2),
                 yamlFile.getConfigurationSection("currency.value")
         );
 
+        settings.storage = new Settings.Storage(
+                yamlFile.getString("storage.type", "yaml"),
+                yamlFile.getBoolean("storage.journal.enabled", false),
+                yamlFile.getInt("storage.journal.compact-threshold", 10000),
+                yamlFile.getBoolean("storage.lazy-loading.enabled", true),
+                yamlFile.getInt("storage.lazy-loading.max-cached-accounts", 5000),
+                yamlFile.getBoolean("storage.lazy-loading.index-leaderboard", false),
+                yamlFile.getBoolean("storage.ledger.enabled", true)
+        );
+
         settings.autoSave = new Settings.AutoSave(
                 yamlFile.getBoolean("auto-save.enabled", true),
                 yamlFile.getInt("auto-save.frequency", 300)
@@ -85,9 +99,25 @@ public final class BancoConfig {
 
         settings.commands = new Settings.Commands(
                 yamlFile.getBoolean("commands.balance.enabled", true),
-                yamlFile.getBoolean("commands.pay.enabled", true)
+                yamlFile.getBoolean("commands.pay.enabled", true),
+                yamlFile.getBoolean("commands.baltop.enabled", true)
         );
 
+        int decimalPlaces = settings.currency.decimalPlaces();
+        if (decimalPlaces < 0 || decimalPlaces > Money.MAX_SCALE) {
+            logger.warn("currency.decimal-places must be between 0 and " + Money.MAX_SCALE + ", using 2 instead");
+            decimalPlaces = 2;
+        }
+
+        Money.setScale(decimalPlaces);
+
+        try {
+            CurrencyFormatter.configure(settings.currency.format(), CurrencyFormatter.parseLocale(settings.currency.locale()));
+        } catch (IllegalArgumentException e) {
+            logger.warn("currency.format is not a valid pattern, using " + CurrencyFormatter.DEFAULT_PATTERN + " instead");
+            CurrencyFormatter.configure(CurrencyFormatter.DEFAULT_PATTERN, CurrencyFormatter.parseLocale(settings.currency.locale()));
+        }
+
         Banco.get().getEconomyManager().registerAll(settings.currency.value());
     }
 
@@ -102,17 +132,29 @@ public final class BancoConfig {
                         boolean removeDrops,
                         boolean countEnderChest,
                         @NotNull String format,
+                        @NotNull String locale,
+                        int decimalPlaces,
                         @NotNull ConfigurationSection value) { }
 
+        public record Storage(@NotNull String type,
+                        boolean journal,
+                        int journalCompactThreshold,
+                        boolean lazyLoading,
+                        int maxCachedAccounts,
+                        boolean indexLeaderboard,
+                        boolean ledger) { }
+
         public record AutoSave(boolean enabled,
                         int frequency) { }
 
         public record UpdateTracker(boolean enabled) { }
 
         public record Commands(boolean balanceEnabled,
-                        boolean payEnabled) { }
+                        boolean payEnabled,
+                        boolean baltopEnabled) { }
 
         private Currency currency;
+        private Storage storage;
         private AutoSave autoSave;
         private UpdateTracker updateTracker;
         private Commands commands;
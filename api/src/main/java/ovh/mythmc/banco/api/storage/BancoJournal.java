@@ -0,0 +1,319 @@
+package ovh.mythmc.banco.api.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ovh.mythmc.banco.api.economy.Money;
+import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountListener;
+import ovh.mythmc.banco.api.economy.accounts.AccountSnapshot;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of account states. Every balance change is written as a full account state
+ * ({@code uuid amount transactions checksum}), so replaying the journal in order is idempotent. The checksum is the
+ * CRC32 of the rest of the line in hexadecimal. Lines that are not terminated by a newline or whose checksum does
+ * not match were torn by a crash and are skipped.
+ *
+ * <p>Entries go to numbered segments ({@code data.journal.1}, {@code data.journal.2}...). Starting a new segment
+ * only opens a file, so it can be done on the thread that captures a snapshot, while syncing, closing and deleting
+ * old segments is left to the storage thread.</p>
+ *
+ * <p>Balance changes are reported from inside the account locks, so they are only queued there. A background thread
+ * writes them in batches, and {@link #sync()}, {@link #rotate()} and {@link #close()} write whatever is still queued
+ * before doing anything else.</p>
+ */
+final class BancoJournal implements AccountListener {
+
+    private final File file;
+
+    // Written by versions that rotated the journal by renaming it. Replayed before any segment and deleted by the
+    // next compaction
+    private final File legacyRotatedFile;
+
+    private FileOutputStream outputStream;
+
+    // Number of the segment that is being written
+    private long generation;
+
+    // Segments that were replaced by a newer one but have not been synced and closed yet
+    private final List<FileOutputStream> rotatedStreams = new ArrayList<>();
+
+    private int entries;
+
+    // Entries written at once by the background thread
+    private static final int BATCH_SIZE = 4096;
+
+    private final Queue<AccountSnapshot> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), Thread.ofVirtual().name("banco-journal").factory());
+
+    private volatile boolean open;
+
+    BancoJournal(final @NotNull File file) {
+        this.file = file;
+        this.legacyRotatedFile = new File(file.getParentFile(), file.getName() + ".old");
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // New entries always go to a new segment, so they can never be appended to an incomplete one
+    synchronized void open() throws IOException {
+        if (outputStream != null)
+            return;
+
+        TreeMap<Long, File> segments = segments();
+        generation = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        openSegment();
+        open = true;
+    }
+
+    private void openSegment() throws IOException {
+        outputStream = new FileOutputStream(segment(generation), true);
+    }
+
+    private File segment(long generation) { return new File(file.getParentFile(), file.getName() + "." + generation); }
+
+    // Existing segments by number, oldest first
+    private TreeMap<Long, File> segments() {
+        TreeMap<Long, File> segments = new TreeMap<>();
+        File[] files = file.getParentFile().listFiles();
+        if (files == null)
+            return segments;
+
+        String prefix = file.getName() + ".";
+        for (File candidate : files) {
+            String name = candidate.getName();
+            if (!name.startsWith(prefix))
+                continue;
+
+            try {
+                segments.put(Long.parseLong(name.substring(prefix.length())), candidate);
+            } catch (NumberFormatException e) {
+                // Not a segment
+            }
+        }
+
+        return segments;
+    }
+
+    // Segments left behind by a compaction that did not finish are replayed as well, in the order they were written
+    int replay(final @NotNull Consumer<AccountSnapshot> consumer) throws IOException {
+        int replayed = replay(legacyRotatedFile, false, consumer) + replay(file, false, consumer);
+        for (File segment : segments().values())
+            replayed += replay(segment, true, consumer);
+
+        synchronized (this) {
+            entries = replayed;
+        }
+
+        return replayed;
+    }
+
+    // Legacy files were written without checksums, so only the newline tells whether their lines are complete
+    private int replay(final @NotNull File file, boolean checksummed,
+                       final @NotNull Consumer<AccountSnapshot> consumer) throws IOException {
+        if (!file.exists())
+            return 0;
+
+        String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        int replayed = 0;
+
+        // Anything after the last newline was cut short
+        for (int start = 0, end; (end = contents.indexOf('\n', start)) >= 0; start = end + 1) {
+            AccountSnapshot snapshot = parse(contents.substring(start, end).strip(), checksummed);
+            if (snapshot != null) {
+                consumer.accept(snapshot);
+                replayed++;
+            }
+        }
+
+        return replayed;
+    }
+
+    private static @Nullable AccountSnapshot parse(final @NotNull String line, boolean checksummed) {
+        String[] parts = line.split(" ");
+        if (parts.length != (checksummed ? 4 : 3))
+            return null;
+
+        try {
+            if (checksummed && Long.parseLong(parts[3], 16) != checksum(parts[0] + ' ' + parts[1] + ' ' + parts[2]))
+                return null;
+
+            return new AccountSnapshot(UUID.fromString(parts[0]),
+                    Money.toUnits(new BigDecimal(parts[1])),
+                    Money.toUnits(new BigDecimal(parts[2])));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // Damaged entry
+            return null;
+        }
+    }
+
+    private static long checksum(final @NotNull String entry) {
+        CRC32 crc = new CRC32();
+        crc.update(entry.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    @Override
+    public void onBalanceChange(@NotNull Account account, long previous, long current) {
+        append(account.snapshot());
+    }
+
+    void append(final @NotNull AccountSnapshot snapshot) {
+        if (!open)
+            return;
+
+        pending.add(snapshot);
+
+        // Entries queued while a batch is being written are picked up by the next one
+        if (flushScheduled.compareAndSet(false, true))
+            executor.execute(this::writePending);
+    }
+
+    // Entries only leave the queue once they are written. If a write fails, whatever part of the batch reached the
+    // file is cut off again so that the next batch starts on a fresh line, and the whole batch is retried later.
+    // Returns false in that case
+    private synchronized boolean writePending() {
+        flushScheduled.set(false);
+        if (outputStream == null) {
+            pending.clear();
+            return true;
+        }
+
+        while (!pending.isEmpty()) {
+            StringBuilder batch = new StringBuilder();
+            int size = 0;
+
+            // This is the only consumer, so the entries iterated here are the ones polled afterward
+            for (AccountSnapshot snapshot : pending) {
+                if (size == BATCH_SIZE)
+                    break;
+
+                String entry = snapshot.uuid() + " " + Money.toDecimal(snapshot.amount()).toPlainString() + " "
+                        + Money.toDecimal(snapshot.transactions()).toPlainString();
+                batch.append(entry)
+                        .append(' ')
+                        .append(Long.toHexString(checksum(entry)))
+                        .append('\n');
+                size++;
+            }
+
+            long committed = -1;
+            try {
+                committed = outputStream.getChannel().size();
+
+                // Handed over to the OS right away so that it survives a server crash
+                outputStream.write(batch.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                BancoStorage.logger.error("Could not write to {}: {}", segment(generation).getName(), e.getMessage());
+                truncate(committed);
+                return false;
+            }
+
+            for (int i = 0; i < size; i++)
+                pending.poll();
+
+            entries += size;
+        }
+
+        return true;
+    }
+
+    private void truncate(long size) {
+        if (size < 0)
+            return;
+
+        try {
+            outputStream.getChannel().truncate(size);
+        } catch (IOException e) {
+            BancoStorage.logger.error("Could not truncate {}: {}", segment(generation).getName(), e.getMessage());
+        }
+    }
+
+    // Forces every entry appended so far to disk
+    synchronized void sync() throws IOException {
+        if (!writePending())
+            throw new IOException("Could not write every entry to " + segment(generation).getName());
+
+        if (outputStream == null)
+            return;
+
+        outputStream.getFD().sync();
+    }
+
+    synchronized int entries() { return entries; }
+
+    // Starts a new segment and returns the number of the last one that is complete. Any snapshot taken afterward
+    // contains every entry up to that segment, so they can be discarded once that snapshot is safely on disk.
+    // Only opens a file, so it is cheap enough to be called while capturing a snapshot
+    synchronized long rotate() throws IOException {
+        // Entries appended before the snapshot belong to the segment that it replaces
+        writePending();
+        entries = 0;
+        if (outputStream == null) {
+            TreeMap<Long, File> segments = segments();
+            return segments.isEmpty() ? 0 : segments.lastKey();
+        }
+
+        rotatedStreams.add(outputStream);
+        generation++;
+        openSegment();
+        return generation - 1;
+    }
+
+    // Syncs and closes the segments replaced by rotate(), in case the snapshot that contains them cannot be written
+    void closeRotated() throws IOException {
+        List<FileOutputStream> streams;
+        synchronized (this) {
+            streams = List.copyOf(rotatedStreams);
+            rotatedStreams.clear();
+        }
+
+        for (FileOutputStream stream : streams) {
+            stream.getFD().sync();
+            stream.close();
+        }
+    }
+
+    // Deletes every segment up to the given one
+    void discard(long generation) throws IOException {
+        Files.deleteIfExists(legacyRotatedFile.toPath());
+        Files.deleteIfExists(file.toPath());
+
+        for (File segment : segments().headMap(generation, true).values())
+            Files.deleteIfExists(segment.toPath());
+    }
+
+    synchronized void close() throws IOException {
+        open = false;
+        writePending();
+        closeRotated();
+        if (outputStream == null)
+            return;
+
+        outputStream.getFD().sync();
+        outputStream.close();
+        outputStream = null;
+    }
+
+}
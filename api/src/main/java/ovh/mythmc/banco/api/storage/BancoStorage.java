@@ -1,23 +1,38 @@
 package ovh.mythmc.banco.api.storage;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
-import org.simpleyaml.configuration.ConfigurationSection;
-import org.simpleyaml.configuration.file.YamlFile;
 import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.BancoHelper;
 import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountSnapshot;
+import ovh.mythmc.banco.api.economy.accounts.PlayerNameCache;
 import ovh.mythmc.banco.api.logger.LoggerWrapper;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Getter
 public final class BancoStorage {
 
-    final YamlFile yamlFile;
-
     static final LoggerWrapper logger = new LoggerWrapper() {
         @Override
         public void info(String message, Object... args) {
@@ -35,65 +50,279 @@ public final class BancoStorage {
         }
     };
 
+    private static final String NAMES_FILE = "names.txt";
+
+    @Getter(AccessLevel.NONE)
+    private final File pluginFolder;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Function<File, StorageBackend>> backends = new ConcurrentHashMap<>();
+
+    private StorageBackend backend;
+
+    @Getter(AccessLevel.NONE)
+    private String backendType;
+
+    @Getter(AccessLevel.NONE)
+    private boolean lazyLoading;
+
+    // Writes are done one at a time, in the same order as they were captured
+    @Getter(AccessLevel.NONE)
+    private final ThreadPoolExecutor writeExecutor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), Thread.ofVirtual().name("banco-storage").factory());
+
+    private final TransactionLedger ledger;
+
+    // Time spent capturing and writing the last save, in nanoseconds
+    private volatile long lastSnapshotTime;
+    private volatile long lastWriteTime;
+
     public BancoStorage(final @NotNull File pluginFolder) {
-        this.yamlFile = new YamlFile(new File(pluginFolder, "data.yml"));
+        this.pluginFolder = pluginFolder;
+        this.ledger = new TransactionLedger(new File(pluginFolder, "ledger"));
+        this.writeExecutor.allowCoreThreadTimeOut(true);
+
+        registerBackend("yaml", YamlStorageBackend::new);
+        registerBackend("sqlite", SqliteStorageBackend::new);
+        registerBackend("binary", BinaryStorageBackend::new);
     }
 
+    // Allows other plugins to provide their own backend, which can then be selected with storage.type
+    public void registerBackend(final @NotNull String type, final @NotNull Function<File, StorageBackend> factory) {
+        backends.put(type.toLowerCase(Locale.ROOT), factory);
+    }
+
+    public @NotNull Set<String> types() { return Set.copyOf(backends.keySet()); }
+
     public void clear() {
-        for (int i = 0; i < Banco.get().getAccountManager().get().size(); i++) {
-            Account account = Banco.get().getAccountManager().get().get(i);
-            Banco.get().getAccountManager().remove(account);
+        Banco.get().getAccountManager().setLoader(null);
+        ledger.close();
+
+        // Pending writes need the backend to be open
+        CompletableFuture.runAsync(() -> { }, writeExecutor).join();
+
+        if (backend != null) {
+            try {
+                backend.close();
+            } catch (IOException e) {
+                logger.error(e.getMessage());
+            }
+
+            backend = null;
         }
+
+        Banco.get().getAccountManager().clear();
+        PlayerNameCache.instance.clear();
     }
 
     public void load() {
-        try {
-            if (yamlFile.exists()) {
-                yamlFile.load();
+        String type = Banco.get().getConfig().getSettings().getStorage().type().toLowerCase(Locale.ROOT);
+        Function<File, StorageBackend> factory = backends.get(type);
+        if (factory == null) {
+            logger.warn("Unknown storage type " + type + ", using yaml instead");
+            type = "yaml";
+            factory = backends.get(type);
+        }
 
-                if (Banco.get().getConfig().getSettings().isDebug())
-                    logger.info("Loading accounts from data.yml...");
+        backend = factory.apply(pluginFolder);
+        backendType = type;
 
-                ConfigurationSection accounts = yamlFile.getConfigurationSection("accounts");
-                accounts.getKeys(false).forEach(key -> {
-                    ConfigurationSection account = accounts.getConfigurationSection(key);
-                    UUID uuid = UUID.fromString(key);
-                    BigDecimal amount = BigDecimal.valueOf(account.getDouble("amount"));
-                    BigDecimal transactions = BigDecimal.valueOf(account.getDouble("transactions"));
+        BancoConfig.Settings.Storage settings = Banco.get().getConfig().getSettings().getStorage();
+        lazyLoading = settings.lazyLoading() && backend.supportsLazyLoading();
+        if (settings.lazyLoading() && !lazyLoading && Banco.get().getConfig().getSettings().isDebug())
+            logger.info("Storage type " + type + " does not support lazy loading, every account will be kept in memory");
+
+        try {
+            backend.open();
 
-                    Banco.get().getAccountManager().add(new Account(uuid, amount, transactions));
-                });
+            if (lazyLoading) {
+                enableLazyLoading(backend, settings.maxCachedAccounts());
 
+                // Accounts stay on disk. Reading every one of them just to rank it defeats the point of lazy loading
+                // on large servers, so by default the leaderboard only knows about accounts loaded since startup
+                if (settings.indexLeaderboard())
+                    backend.load(Banco.get().getAccountManager()::index);
             } else {
-                if (Banco.get().getConfig().getSettings().isDebug())
-                    logger.info("Creating data.yml...");
+                backend.load(snapshot -> Banco.get().getAccountManager().add(toAccount(snapshot)));
 
-                yamlFile.createNewFile(true);
-                yamlFile.createSection("accounts");
-                yamlFile.save();
+                // Freshly loaded accounts are already stored
+                Banco.get().getAccountManager().drainDirty();
+            }
+
+            loadNames();
+
+            if (settings.ledger()) {
+                try {
+                    ledger.open();
+                } catch (IOException e) {
+                    logger.error("Could not open the transaction ledger: {}", e.getMessage());
+                }
             }
 
             if (Banco.get().getConfig().getSettings().isDebug())
-                logger.info("Done! (" + Banco.get().getAccountManager().get().size() + " accounts loaded)");
+                logger.info("Done! (" + Banco.get().getAccountManager().accounts().size() + " accounts in memory, " +
+                        PlayerNameCache.instance.size() + " player names)");
         } catch (IOException e) {
             logger.error(e.getMessage());
         }
     }
 
+    // Only online players and recently used accounts are kept in memory, everything else is looked up on demand
+    private static void enableLazyLoading(final @NotNull StorageBackend backend, int maxCachedAccounts) {
+        Banco.get().getAccountManager().setLoader(uuid -> {
+            try {
+                AccountSnapshot snapshot = backend.load(uuid);
+                return snapshot == null ? null : toAccount(snapshot);
+            } catch (IOException e) {
+                logger.error(e.getMessage());
+                return null;
+            }
+        });
+
+        Banco.get().getAccountManager().setEvictionPolicy(maxCachedAccounts, account ->
+                !BancoHelper.get().isOnline(account.getUuid()) && !Banco.get().getAccountManager().isDirty(account)
+                        && !backend.hasPendingChanges(account));
+    }
+
+    // Saves and waits until everything is on disk
     public void save() throws IOException {
-        if (Banco.get().getConfig().getSettings().isDebug())
-            logger.info("Saving " + Banco.get().getAccountManager().get().size() + " account(s)...");
+        try {
+            saveAsync().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException)
+                throw ioException;
+
+            throw e;
+        }
+    }
+
+    // Captures account data on the calling thread, which should be the one that modifies accounts, and writes it in
+    // the background so that serialization and disk access never block the server
+    public CompletableFuture<Void> saveAsync() {
+        StorageBackend backend = this.backend;
+        if (backend == null)
+            return CompletableFuture.completedFuture(null);
 
-        ConfigurationSection accountsSection = yamlFile.createSection("accounts");
-        Banco.get().getAccountManager().get().forEach(account -> {
-            ConfigurationSection accountSection = accountsSection.createSection(account.getUuid().toString());
-            account.serialize().forEach(accountSection::set);
+        long snapshotStart = System.nanoTime();
+        StorageBackend.SaveTask task;
+        try {
+            task = backend.prepare(Banco.get().getAccountManager().accounts());
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        List<Map.Entry<UUID, String>> names = PlayerNameCache.instance.drainChanges();
+        lastSnapshotTime = System.nanoTime() - snapshotStart;
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        writeExecutor.execute(() -> {
+            long writeStart = System.nanoTime();
+            try {
+                task.write();
+            } catch (IOException | RuntimeException e) {
+                if (names != null)
+                    PlayerNameCache.instance.markDirty();
+
+                future.completeExceptionally(e);
+                return;
+            }
+
+            if (names != null)
+                writeNames(names);
+
+            lastWriteTime = System.nanoTime() - writeStart;
+
+            if (Banco.get().getConfig().getSettings().isDebug())
+                logger.info(String.format(Locale.ROOT, "Saved in %.2fms (snapshot) + %.2fms (write)",
+                        lastSnapshotTime / 1_000_000D, lastWriteTime / 1_000_000D));
+
+            // Accounts that were just written can now be safely dropped from memory
+            int evicted = Banco.get().getAccountManager().evict();
+            if (evicted > 0 && Banco.get().getConfig().getSettings().isDebug())
+                logger.info("Evicted " + evicted + " inactive account(s) from memory");
+
+            future.complete(null);
         });
 
-        yamlFile.save();
+        return future;
+    }
+
+    // Writes every account to another storage type, which can then be selected with storage.type. Completes with
+    // the amount of accounts that were written
+    public CompletableFuture<Integer> export(final @NotNull String type) {
+        String targetType = type.toLowerCase(Locale.ROOT);
+        Function<File, StorageBackend> factory = backends.get(targetType);
+        if (factory == null)
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown storage type " + type));
+
+        StorageBackend source = backend;
+        if (source == null || targetType.equals(backendType))
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Data is already stored as " + targetType));
+
+        // Lazily loaded accounts are not all in memory, so they are read back from storage once saved
+        List<AccountSnapshot> snapshots = new ArrayList<>();
+        if (!lazyLoading)
+            Banco.get().getAccountManager().accounts().forEach(account -> snapshots.add(account.snapshot()));
+
+        boolean readBack = lazyLoading;
+        return saveAsync().thenApplyAsync(ignored -> {
+            try {
+                if (readBack)
+                    source.load(snapshots::add);
+
+                StorageBackend target = factory.apply(pluginFolder);
+                target.open();
+                try {
+                    target.overwrite(snapshots);
+                } finally {
+                    target.close();
+                }
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+
+            return snapshots.size();
+        }, writeExecutor);
+    }
+
+    // Player names are stored in their own file, one "uuid name" pair per line
+    private void loadNames() throws IOException {
+        Path path = new File(pluginFolder, NAMES_FILE).toPath();
+        if (!Files.exists(path))
+            return;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(' ');
+                if (separator < 0)
+                    continue;
+
+                try {
+                    PlayerNameCache.instance.put(line.substring(separator + 1), UUID.fromString(line.substring(0, separator)));
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+        }
+
+        // Nothing changed since the file was written
+        PlayerNameCache.instance.drainChanges();
+    }
+
+    private void writeNames(final @NotNull List<Map.Entry<UUID, String>> names) {
+        StringBuilder builder = new StringBuilder(names.size() * 54);
+        names.forEach(entry -> builder.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n'));
+
+        try {
+            YamlStorageBackend.writeAtomically(new File(pluginFolder, NAMES_FILE).toPath(), builder.toString());
+        } catch (IOException e) {
+            PlayerNameCache.instance.markDirty();
+            logger.error("Could not save player names: {}", e.getMessage());
+        }
+    }
 
-        if (Banco.get().getConfig().getSettings().isDebug())
-            logger.info("Done!");
+    private static Account toAccount(final @NotNull AccountSnapshot snapshot) {
+        return new Account(snapshot.uuid(), snapshot.amount(), snapshot.transactions());
     }
 
 }
@@ -0,0 +1,162 @@
+package ovh.mythmc.banco.api.storage;
+
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.Money;
+import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Compact snapshot format made of fixed-width records. Every account takes 32 bytes (UUID and both balances in
+ * minor units), so the whole file is read and written with a single buffer and no text parsing.
+ *
+ * <pre>
+ * header:  magic (int) | version (int) | scale (int) | count (int)
+ * records: uuid msb (long) | uuid lsb (long) | amount (long) | transactions (long)
+ * trailer: CRC32 of everything above (int)
+ * </pre>
+ */
+public final class BinaryStorageBackend implements StorageBackend {
+
+    private static final int MAGIC = 0x42414E43; // BANC
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int RECORD_SIZE = 32;
+
+    private static final int TRAILER_SIZE = 4;
+
+    private final File file;
+
+    private final SnapshotCache snapshotCache = new SnapshotCache();
+
+    public BinaryStorageBackend(final @NotNull File pluginFolder) {
+        this.file = new File(pluginFolder, "data.bin");
+    }
+
+    @Override
+    public void open() { }
+
+    @Override
+    public void load(final @NotNull Consumer<AccountSnapshot> consumer) throws IOException {
+        if (!file.exists())
+            return;
+
+        if (Banco.get().getConfig().getSettings().isDebug())
+            BancoStorage.logger.info("Loading accounts from data.bin...");
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE || size > Integer.MAX_VALUE)
+                throw new IOException("data.bin is corrupted (unexpected size " + size + ")");
+
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0)
+                    throw new IOException("data.bin is corrupted (unexpected end of file)");
+            }
+
+            buffer.flip();
+        }
+
+        if (buffer.getInt() != MAGIC)
+            throw new IOException("data.bin is not a banco data file");
+
+        int version = buffer.getInt();
+        if (version != VERSION)
+            throw new IOException("data.bin was written by an unsupported version (" + version + ")");
+
+        int scale = buffer.getInt();
+        int count = buffer.getInt();
+        if (scale < 0 || scale > Money.MAX_SCALE || count < 0 || buffer.capacity() != HEADER_SIZE + (long) count * RECORD_SIZE + TRAILER_SIZE)
+            throw new IOException("data.bin is corrupted (invalid header)");
+
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate().position(0).limit(buffer.capacity() - TRAILER_SIZE));
+        if ((int) checksum.getValue() != buffer.getInt(buffer.capacity() - TRAILER_SIZE))
+            throw new IOException("data.bin is corrupted (checksum mismatch)");
+
+        for (int i = 0; i < count; i++) {
+            UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+            long amount = rescale(buffer.getLong(), scale);
+            long transactions = rescale(buffer.getLong(), scale);
+
+            consumer.accept(new AccountSnapshot(uuid, amount, transactions));
+        }
+    }
+
+    // Balances are stored in minor units, so they need to be converted when currency.decimal-places changes
+    static long rescale(long units, int storedScale) {
+        int scale = Money.scale();
+        if (storedScale == scale)
+            return units;
+
+        long factor = (long) Math.pow(10, Math.abs(scale - storedScale));
+        return scale > storedScale ? Math.multiplyExact(units, factor) : units / factor;
+    }
+
+    @Override
+    public @NotNull SaveTask prepare(final @NotNull Collection<Account> accounts) {
+        // The file is always rewritten as a whole, but only accounts that changed since the last save are read again
+        List<Account> dirtyAccounts = Banco.get().getAccountManager().drainDirty();
+        if (dirtyAccounts.isEmpty())
+            return SaveTask.NONE;
+
+        List<AccountSnapshot> snapshots = snapshotCache.capture(accounts, dirtyAccounts);
+
+        return () -> {
+            try {
+                overwrite(snapshots);
+            } catch (IOException e) {
+                Banco.get().getAccountManager().restoreDirty(dirtyAccounts);
+                throw e;
+            }
+        };
+    }
+
+    @Override
+    public void overwrite(final @NotNull Collection<AccountSnapshot> snapshots) throws IOException {
+        if (Banco.get().getConfig().getSettings().isDebug())
+            BancoStorage.logger.info("Saving " + snapshots.size() + " account(s)...");
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + snapshots.size() * RECORD_SIZE + TRAILER_SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(Money.scale());
+        buffer.putInt(snapshots.size());
+
+        for (AccountSnapshot snapshot : snapshots) {
+            buffer.putLong(snapshot.uuid().getMostSignificantBits());
+            buffer.putLong(snapshot.uuid().getLeastSignificantBits());
+            buffer.putLong(snapshot.amount());
+            buffer.putLong(snapshot.transactions());
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate().flip());
+        buffer.putInt((int) checksum.getValue());
+
+        YamlStorageBackend.writeAtomically(file.toPath(), buffer.flip());
+
+        if (Banco.get().getConfig().getSettings().isDebug())
+            BancoStorage.logger.info("Done!");
+    }
+
+    @Override
+    public void close() { }
+
+}
@@ -0,0 +1,21 @@
+package ovh.mythmc.banco.api.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ovh.mythmc.banco.api.economy.Money;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Money taken from source and given to target. Deposits have no source and withdrawals have no target
+public record LedgerEntry(long timestamp,
+                          @Nullable UUID source,
+                          @Nullable UUID target,
+                          long units,
+                          @NotNull String cause) {
+
+    public @NotNull BigDecimal amount() { return Money.toDecimal(units); }
+
+    public boolean involves(final @NotNull UUID uuid) { return uuid.equals(source) || uuid.equals(target); }
+
+}
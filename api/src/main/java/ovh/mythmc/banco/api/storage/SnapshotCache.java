@@ -0,0 +1,47 @@
+package ovh.mythmc.banco.api.storage;
+
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Last captured snapshot of every account in memory, for storage types that rewrite the whole file on each save.
+// Only accounts that changed since the previous capture are read again, so a save takes one stripe lock per dirty
+// account instead of one per account
+final class SnapshotCache {
+
+    private final Map<UUID, AccountSnapshot> snapshots = new HashMap<>();
+
+    // Accounts drained from the dirty set without being captured, such as when only the journal was synced
+    private final Map<UUID, Account> stale = new HashMap<>();
+
+    synchronized void markStale(final @NotNull Collection<Account> accounts) {
+        accounts.forEach(account -> stale.put(account.getUuid(), account));
+    }
+
+    // Returns a copy that can be written on another thread. Every account in memory has been captured before, so a
+    // size mismatch means that accounts were removed (or never captured), in which case everything is read again
+    synchronized @NotNull List<AccountSnapshot> capture(final @NotNull Collection<Account> accounts, final @NotNull Collection<Account> dirty) {
+        stale.values().forEach(this::put);
+        stale.clear();
+        dirty.forEach(this::put);
+
+        if (snapshots.size() != accounts.size()) {
+            snapshots.clear();
+            accounts.forEach(this::put);
+        }
+
+        return new ArrayList<>(snapshots.values());
+    }
+
+    private void put(final @NotNull Account account) {
+        snapshots.put(account.getUuid(), account.snapshot());
+    }
+
+}
@@ -0,0 +1,300 @@
+package ovh.mythmc.banco.api.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.Money;
+import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// The SQLite JDBC driver is bundled with Spigot, Paper and their forks, so it does not need to be shaded
+public final class SqliteStorageBackend implements StorageBackend {
+
+    private static final String CREATE_ACCOUNTS_TABLE = "CREATE TABLE IF NOT EXISTS banco_accounts (" +
+            "uuid CHAR(36) NOT NULL PRIMARY KEY, " +
+            "amount BIGINT NOT NULL, " +
+            "transactions BIGINT NOT NULL)";
+
+    private static final String CREATE_META_TABLE = "CREATE TABLE IF NOT EXISTS banco_meta (" +
+            "meta_key VARCHAR(32) NOT NULL PRIMARY KEY, " +
+            "meta_value VARCHAR(255) NOT NULL)";
+
+    private static final String SELECT_ACCOUNTS = "SELECT uuid, amount, transactions FROM banco_accounts";
+
+    private static final String SELECT_ACCOUNT = "SELECT amount, transactions FROM banco_accounts WHERE uuid = ?";
+
+    private static final String UPSERT_ACCOUNT = "INSERT INTO banco_accounts (uuid, amount, transactions) VALUES (?, ?, ?) " +
+            "ON CONFLICT(uuid) DO UPDATE SET amount = excluded.amount, transactions = excluded.transactions";
+
+    private final File file;
+
+    // Accounts that have been captured but not written yet
+    private final Set<UUID> savingAccounts = ConcurrentHashMap.newKeySet();
+
+    private Connection connection;
+
+    // Point lookups run on a separate read-only connection so that a cache miss does not wait for a batch save.
+    // WAL mode lets it read the last committed state while the main connection is writing
+    private final Object readLock = new Object();
+
+    private Connection readConnection;
+
+    public SqliteStorageBackend(final @NotNull File pluginFolder) {
+        this.file = new File(pluginFolder, "data.db");
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute(CREATE_ACCOUNTS_TABLE);
+                statement.execute(CREATE_META_TABLE);
+            }
+
+            try {
+                migrateScale();
+            } catch (IOException e) {
+                connection.close();
+                throw e;
+            }
+
+            // 1 is SQLITE_OPEN_READONLY
+            Properties properties = new Properties();
+            properties.setProperty("open_mode", "1");
+
+            synchronized (readLock) {
+                try {
+                    readConnection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath(), properties);
+                } catch (SQLException e) {
+                    connection.close();
+                    throw e;
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("SQLite driver not found, please use the yaml storage type instead", e);
+        } catch (SQLException e) {
+            throw new IOException("Could not open " + file.getName(), e);
+        }
+    }
+
+    // Balances are stored in minor units, so they need to be converted when currency.decimal-places changes
+    private void migrateScale() throws SQLException, IOException {
+        int scale = Money.scale();
+        int storedScale = scale;
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT meta_value FROM banco_meta WHERE meta_key = 'scale'");
+             ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next())
+                storedScale = Integer.parseInt(resultSet.getString(1));
+        }
+
+        // SQLite turns integers that overflow into floating point values, which would silently corrupt balances
+        if (scale > storedScale)
+            checkScaleUp((long) Math.pow(10, scale - storedScale), storedScale, scale);
+
+        connection.setAutoCommit(false);
+        try {
+            if (storedScale != scale) {
+                long factor = (long) Math.pow(10, Math.abs(scale - storedScale));
+                String operator = scale > storedScale ? "*" : "/";
+
+                try (PreparedStatement statement = connection.prepareStatement("UPDATE banco_accounts SET " +
+                        "amount = amount " + operator + " ?, transactions = transactions " + operator + " ?")) {
+                    statement.setLong(1, factor);
+                    statement.setLong(2, factor);
+                    statement.executeUpdate();
+                }
+
+                BancoStorage.logger.info("Converted stored balances from " + storedScale + " to " + scale + " decimal places");
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO banco_meta (meta_key, meta_value) VALUES ('scale', ?) " +
+                    "ON CONFLICT(meta_key) DO UPDATE SET meta_value = excluded.meta_value")) {
+                statement.setString(1, String.valueOf(scale));
+                statement.executeUpdate();
+            }
+
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void checkScaleUp(long factor, int storedScale, int scale) throws SQLException, IOException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(ABS(amount)), MAX(ABS(transactions)) FROM banco_accounts")) {
+            if (!resultSet.next())
+                return;
+
+            long limit = Long.MAX_VALUE / factor;
+            if (resultSet.getLong(1) > limit || resultSet.getLong(2) > limit)
+                throw new IOException("Stored balances are too large to be converted from " + storedScale + " to " +
+                        scale + " decimal places, please lower currency.decimal-places");
+        }
+    }
+
+    @Override
+    public synchronized void load(final @NotNull Consumer<AccountSnapshot> consumer) throws IOException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_ACCOUNTS)) {
+            while (resultSet.next()) {
+                consumer.accept(new AccountSnapshot(UUID.fromString(resultSet.getString(1)),
+                        resultSet.getLong(2), resultSet.getLong(3)));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not load accounts", e);
+        }
+    }
+
+    @Override
+    public @Nullable AccountSnapshot load(final @NotNull UUID uuid) throws IOException {
+        synchronized (readLock) {
+            if (readConnection == null)
+                throw new IOException("Could not load account " + uuid + ", storage is closed");
+
+            try (PreparedStatement statement = readConnection.prepareStatement(SELECT_ACCOUNT)) {
+                statement.setString(1, uuid.toString());
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next())
+                        return null;
+
+                    return new AccountSnapshot(uuid, resultSet.getLong(1), resultSet.getLong(2));
+                }
+            } catch (SQLException e) {
+                throw new IOException("Could not load account " + uuid, e);
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsLazyLoading() { return true; }
+
+    @Override
+    public boolean hasPendingChanges(final @NotNull Account account) {
+        return savingAccounts.contains(account.getUuid());
+    }
+
+    @Override
+    public @NotNull SaveTask prepare(final @NotNull Collection<Account> accounts) {
+        // Only accounts that changed since the last save are written. Accounts are taken out of the dirty set
+        // before being read, so changes made while saving are kept for next time
+        List<Account> captured = Banco.get().getAccountManager().drainDirty();
+        if (captured.isEmpty())
+            return SaveTask.NONE;
+
+        List<AccountSnapshot> snapshots = new ArrayList<>(captured.size());
+        for (Account account : captured) {
+            savingAccounts.add(account.getUuid());
+            snapshots.add(account.snapshot());
+        }
+
+        return () -> {
+            try {
+                write(snapshots, false);
+            } catch (IOException e) {
+                Banco.get().getAccountManager().restoreDirty(captured);
+                throw e;
+            } finally {
+                captured.forEach(account -> savingAccounts.remove(account.getUuid()));
+            }
+        };
+    }
+
+    @Override
+    public void overwrite(final @NotNull Collection<AccountSnapshot> snapshots) throws IOException {
+        write(snapshots, true);
+    }
+
+    private synchronized void write(final @NotNull Collection<AccountSnapshot> snapshots, boolean replace) throws IOException {
+        if (Banco.get().getConfig().getSettings().isDebug())
+            BancoStorage.logger.info("Saving " + snapshots.size() + " account(s)...");
+
+        try {
+            connection.setAutoCommit(false);
+            if (replace) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DELETE FROM banco_accounts");
+                }
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_ACCOUNT)) {
+                for (AccountSnapshot snapshot : snapshots) {
+                    statement.setString(1, snapshot.uuid().toString());
+                    statement.setLong(2, snapshot.amount());
+                    statement.setLong(3, snapshot.transactions());
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+            }
+
+            connection.commit();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException ignored) {
+            }
+
+            throw new IOException("Could not save accounts", e);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+            }
+        }
+
+        if (Banco.get().getConfig().getSettings().isDebug())
+            BancoStorage.logger.info("Done!");
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        synchronized (readLock) {
+            try {
+                if (readConnection != null) {
+                    readConnection.close();
+                    readConnection = null;
+                }
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+
+        if (connection == null)
+            return;
+
+        try {
+            connection.close();
+            connection = null;
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package ovh.mythmc.banco.api.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountSnapshot;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface StorageBackend {
+
+    void open() throws IOException;
+
+    // Loads every stored account. When accounts are lazily loaded it is only used to build the leaderboard, if
+    // storage.lazy-loading.index-leaderboard is enabled, in which case it must not have side effects
+    void load(@NotNull Consumer<AccountSnapshot> consumer) throws IOException;
+
+    // Looks up a single account that is not in memory. Only used when supportsLazyLoading() returns true
+    default @Nullable AccountSnapshot load(@NotNull UUID uuid) throws IOException { return null; }
+
+    default boolean supportsLazyLoading() { return false; }
+
+    // Whether the account has been captured by prepare() but not written yet. Such accounts are never evicted from memory
+    default boolean hasPendingChanges(@NotNull Account account) { return true; }
+
+    // Captures everything that needs to be written, which is usually what AccountManager.drainDirty() returns.
+    // Called on the thread that owns account data, so it must be cheap
+    @NotNull SaveTask prepare(@NotNull Collection<Account> accounts) throws IOException;
+
+    default void save(@NotNull Collection<Account> accounts) throws IOException { prepare(accounts).write(); }
+
+    // Replaces everything that is stored with the given accounts. Used to convert data between storage types
+    void overwrite(@NotNull Collection<AccountSnapshot> snapshots) throws IOException;
+
+    void close() throws IOException;
+
+    // Writes a previously captured state to disk. Runs off the main thread, one task at a time
+    @FunctionalInterface
+    interface SaveTask {
+
+        SaveTask NONE = () -> { };
+
+        void write() throws IOException;
+
+    }
+
+}
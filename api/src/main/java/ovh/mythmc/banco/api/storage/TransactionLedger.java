@@ -0,0 +1,619 @@
+package ovh.mythmc.banco.api.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.Money;
+import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Append-only record of every deposit, withdrawal, transfer and balance adjustment. Entries are queued and written
+ * in batches by a background thread to numbered segments in the {@code ledger} folder. Each segment holds a fixed
+ * amount of fixed-width records, so history is paged backward from the newest segment without reading the whole log.
+ * Once full, a segment gets a sorted index of the accounts it mentions, which lets lookups skip it entirely.
+ *
+ * <pre>
+ * header:  magic (int) | version (int) | scale (int) | reserved (int)
+ * records: timestamp (long) | source msb | source lsb | target msb | target lsb | units (long) | cause (32 bytes)
+ * index:   count (int) | sorted uuid msb (long) and lsb (long) pairs
+ * </pre>
+ *
+ * The most recent entries of recently used accounts are also kept in memory, so the first pages of their history
+ * never touch the disk.
+ */
+public final class TransactionLedger implements AccountListener {
+
+    private static final int MAGIC = 0x424C4F47; // BLOG
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int CAUSE_SIZE = 32;
+
+    private static final int RECORD_SIZE = 48 + CAUSE_SIZE;
+
+    // 5 MB per segment
+    private static final int SEGMENT_RECORDS = 65536;
+
+    // Records read at once while paging backward
+    private static final int READ_CHUNK = 512;
+
+    private static final int RING_SIZE = 32;
+
+    private static final int MAX_RINGS = 1024;
+
+    private final File folder;
+
+    // Writes and disk lookups run one at a time, so lookups always see every entry queued before them
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), Thread.ofVirtual().name("banco-ledger").factory());
+
+    private final Deque<LedgerEntry> pending = new ConcurrentLinkedDeque<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    // Entries are added from inside the account locks, so each ring is locked on its own rather than the whole map
+    private final Map<UUID, Ring> rings = new ConcurrentHashMap<>();
+
+    // Only touched from the executor
+    private FileChannel channel;
+    private int segment;
+    private int records;
+    private final Set<UUID> segmentAccounts = new HashSet<>();
+
+    private volatile boolean open;
+
+    // Most recent entries of an account, newest last
+    private static final class Ring {
+
+        private final LedgerEntry[] entries = new LedgerEntry[RING_SIZE];
+
+        // Entries added since the ring was created, which may be more than it can hold
+        private long added;
+
+        private volatile long lastUsed = System.nanoTime();
+
+        // Set once the ring is dropped from the map, so that nothing is added to it afterward
+        private boolean evicted;
+
+        private void add(final @NotNull LedgerEntry entry) {
+            entries[(int) (added % RING_SIZE)] = entry;
+            added++;
+        }
+
+        // Newest first. Only valid if the requested entries are still in the ring
+        private @NotNull List<LedgerEntry> page(int skip, int amount) {
+            List<LedgerEntry> page = new ArrayList<>(amount);
+            for (long i = added - 1 - skip; i >= 0 && i >= added - RING_SIZE && page.size() < amount; i--)
+                page.add(entries[(int) (i % RING_SIZE)]);
+
+            return page;
+        }
+
+    }
+
+    TransactionLedger(final @NotNull File folder) {
+        this.folder = folder;
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    void open() throws IOException {
+        if (open)
+            return;
+
+        try {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    openSegment();
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException)
+                throw ioException;
+
+            throw e;
+        }
+
+        open = true;
+        Banco.get().getAccountManager().registerListener(this);
+    }
+
+    void close() {
+        if (!open)
+            return;
+
+        open = false;
+        Banco.get().getAccountManager().unregisterListener(this);
+
+        CompletableFuture.runAsync(() -> {
+            writePending();
+
+            try {
+                if (channel != null)
+                    channel.close();
+            } catch (IOException e) {
+                BancoStorage.logger.error("Could not close the ledger: {}", e.getMessage());
+            }
+
+            channel = null;
+        }, executor).join();
+
+        rings.clear();
+    }
+
+    public boolean isOpen() { return open; }
+
+    @Override
+    public void onBalanceChange(@NotNull Account account, long previous, long current) {
+        // Transactions are recorded as a whole by onTransaction
+        if (Banco.get().getAccountManager().isInTransaction())
+            return;
+
+        long units = current - previous;
+        append(units > 0 ? null : account.getUuid(), units > 0 ? account.getUuid() : null, Math.abs(units));
+    }
+
+    @Override
+    public void onTransaction(@Nullable Account source, @Nullable Account target, long units) {
+        append(source == null ? null : source.getUuid(), target == null ? null : target.getUuid(), units);
+    }
+
+    private void append(final @Nullable UUID source, final @Nullable UUID target, long units) {
+        if (!open)
+            return;
+
+        LedgerEntry entry = new LedgerEntry(System.currentTimeMillis(), source, target, units,
+                Banco.get().getAccountManager().cause());
+
+        if (source != null)
+            addToRing(source, entry);
+        if (target != null)
+            addToRing(target, entry);
+
+        pending.add(entry);
+
+        // Entries queued while a batch is being written are picked up by the next one
+        if (flushScheduled.compareAndSet(false, true))
+            executor.execute(this::writePending);
+    }
+
+    private void addToRing(final @NotNull UUID uuid, final @NotNull LedgerEntry entry) {
+        while (true) {
+            Ring ring = rings.computeIfAbsent(uuid, key -> new Ring());
+            synchronized (ring) {
+                if (ring.evicted)
+                    continue;
+
+                ring.add(entry);
+                ring.lastUsed = System.nanoTime();
+                return;
+            }
+        }
+    }
+
+    // Drops the least recently used rings once there are too many. Runs on the executor, away from the account locks
+    private void trimRings() {
+        if (rings.size() <= MAX_RINGS)
+            return;
+
+        List<Map.Entry<UUID, Ring>> entries = new ArrayList<>(rings.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+
+        for (int i = 0; i < entries.size() - MAX_RINGS; i++) {
+            Ring ring = entries.get(i).getValue();
+            synchronized (ring) {
+                if (rings.remove(entries.get(i).getKey(), ring))
+                    ring.evicted = true;
+            }
+        }
+    }
+
+    // Recent entries of the given account that are still in memory, newest first
+    public @NotNull List<LedgerEntry> recent(final @NotNull UUID uuid) {
+        Ring ring = rings.get(uuid);
+        if (ring == null)
+            return List.of();
+
+        synchronized (ring) {
+            ring.lastUsed = System.nanoTime();
+            return ring.page(0, RING_SIZE);
+        }
+    }
+
+    // Entries that involve the given account, newest first. Pages start from 1
+    public @NotNull CompletableFuture<List<LedgerEntry>> history(final @NotNull UUID uuid, int page, int pageSize) {
+        if (page < 1 || pageSize < 1)
+            throw new IllegalArgumentException("Page and page size must be positive");
+
+        long from = (long) (page - 1) * pageSize;
+        if (from > Integer.MAX_VALUE)
+            return CompletableFuture.completedFuture(List.of());
+
+        int skip = (int) from;
+        Ring ring = rings.get(uuid);
+        if (ring != null) {
+            synchronized (ring) {
+                ring.lastUsed = System.nanoTime();
+                if (!ring.evicted && ring.added >= from + pageSize && from + pageSize <= RING_SIZE)
+                    return CompletableFuture.completedFuture(ring.page(skip, pageSize));
+            }
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            writePending();
+
+            try {
+                return read(uuid, skip, pageSize);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private void writePending() {
+        flushScheduled.set(false);
+        trimRings();
+        if (pending.isEmpty() || channel == null)
+            return;
+
+        // Entries in the buffer that have not been written yet, and the record the first of them was given
+        List<LedgerEntry> buffered = new ArrayList<>();
+        int firstBuffered = records;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.min(pending.size(), SEGMENT_RECORDS) * RECORD_SIZE);
+            LedgerEntry entry;
+
+            // Entries only leave the queue once they are in the buffer. This is the only consumer, so the entry
+            // that is polled is always the one that was peeked
+            while ((entry = pending.peek()) != null) {
+                if (records == SEGMENT_RECORDS || !buffer.hasRemaining()) {
+                    write(buffer.flip());
+                    buffer.clear();
+                    buffered.clear();
+
+                    if (records == SEGMENT_RECORDS)
+                        nextSegment();
+
+                    firstBuffered = records;
+                }
+
+                pending.poll();
+                buffered.add(entry);
+                encode(entry, buffer);
+                records++;
+                remember(entry.source());
+                remember(entry.target());
+            }
+
+            write(buffer.flip());
+            channel.force(false);
+        } catch (IOException e) {
+            BancoStorage.logger.error("Could not write to the ledger: {}", e.getMessage());
+            recover(buffered, firstBuffered);
+        }
+    }
+
+    // Puts entries that did not make it to the disk back in front of the queue, where the next batch picks them up.
+    // The segment is truncated to its last whole record like openSegment does, or reopened if it was lost
+    private void recover(final @NotNull List<LedgerEntry> buffered, int firstBuffered) {
+        try {
+            if (channel != null && channel.isOpen()) {
+                records = (int) Math.min(SEGMENT_RECORDS, (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+                channel.truncate(HEADER_SIZE + (long) records * RECORD_SIZE);
+                channel.position(HEADER_SIZE + (long) records * RECORD_SIZE);
+            } else {
+                channel = null;
+                openSegment();
+            }
+        } catch (IOException e) {
+            BancoStorage.logger.error("Could not recover the ledger: {}", e.getMessage());
+        }
+
+        // Entries from a segment that was sealed in the meantime are never in the buffer, so only those past the
+        // last record that reached the current segment are queued again
+        int written = channel != null && firstBuffered <= records ? records - firstBuffered : 0;
+        for (int i = buffered.size() - 1; i >= written; i--)
+            pending.addFirst(buffered.get(i));
+    }
+
+    private void write(final @NotNull ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    private void remember(final @Nullable UUID uuid) {
+        if (uuid != null)
+            segmentAccounts.add(uuid);
+    }
+
+    private static void encode(final @NotNull LedgerEntry entry, final @NotNull ByteBuffer buffer) {
+        buffer.putLong(entry.timestamp());
+        putUuid(entry.source(), buffer);
+        putUuid(entry.target(), buffer);
+        buffer.putLong(entry.units());
+
+        byte[] cause = truncate(entry.cause());
+        buffer.put(cause);
+        buffer.put(new byte[CAUSE_SIZE - cause.length]);
+    }
+
+    // Causes are cut to fit in their slot without splitting characters
+    private static byte[] truncate(final @NotNull String cause) {
+        byte[] bytes = cause.getBytes(StandardCharsets.UTF_8);
+        int length = cause.length();
+        while (bytes.length > CAUSE_SIZE)
+            bytes = cause.substring(0, --length).getBytes(StandardCharsets.UTF_8);
+
+        return bytes;
+    }
+
+    private static void putUuid(final @Nullable UUID uuid, final @NotNull ByteBuffer buffer) {
+        buffer.putLong(uuid == null ? 0 : uuid.getMostSignificantBits());
+        buffer.putLong(uuid == null ? 0 : uuid.getLeastSignificantBits());
+    }
+
+    private static @NotNull LedgerEntry decode(final @NotNull ByteBuffer buffer, int scale) {
+        long timestamp = buffer.getLong();
+        UUID source = getUuid(buffer);
+        UUID target = getUuid(buffer);
+        long units = BinaryStorageBackend.rescale(buffer.getLong(), scale);
+
+        byte[] cause = new byte[CAUSE_SIZE];
+        buffer.get(cause);
+        int length = 0;
+        while (length < CAUSE_SIZE && cause[length] != 0)
+            length++;
+
+        return new LedgerEntry(timestamp, source, target, units, new String(cause, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private static @Nullable UUID getUuid(final @NotNull ByteBuffer buffer) {
+        long mostSignificantBits = buffer.getLong();
+        long leastSignificantBits = buffer.getLong();
+        if (mostSignificantBits == 0 && leastSignificantBits == 0)
+            return null;
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    // Continues the newest segment, unless it was written with a different scale or cannot be read
+    private void openSegment() throws IOException {
+        Files.createDirectories(folder.toPath());
+
+        segment = 0;
+        File[] files = folder.listFiles((directory, name) -> name.matches("\\d{8}\\.log"));
+        if (files != null) {
+            for (File file : files)
+                segment = Math.max(segment, Integer.parseInt(file.getName().substring(0, 8)));
+        }
+
+        if (segment == 0) {
+            nextSegment();
+            return;
+        }
+
+        Path path = segmentPath(segment);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        int scale = readScale(channel);
+        if (scale < 0) {
+            BancoStorage.logger.warn("{} is not a valid ledger segment, starting a new one", path.getFileName());
+            channel.close();
+            channel = null;
+            nextSegment();
+            return;
+        }
+
+        // A torn last record is dropped so that new ones stay aligned
+        long size = channel.size();
+        records = (int) Math.min(SEGMENT_RECORDS, (size - HEADER_SIZE) / RECORD_SIZE);
+        channel.truncate(HEADER_SIZE + (long) records * RECORD_SIZE);
+        channel.position(HEADER_SIZE + (long) records * RECORD_SIZE);
+
+        scan(channel, records, scale, entry -> {
+            remember(entry.source());
+            remember(entry.target());
+        });
+
+        // Segments are read with the scale they were written with, but new entries always use the current one
+        if (records == SEGMENT_RECORDS || scale != Money.scale())
+            nextSegment();
+    }
+
+    // Seals the current segment by writing its index, then starts the next one
+    private void nextSegment() throws IOException {
+        if (channel != null) {
+            List<UUID> accounts = new ArrayList<>(segmentAccounts);
+            accounts.sort(TransactionLedger::compare);
+
+            ByteBuffer index = ByteBuffer.allocate(4 + accounts.size() * 16);
+            index.putInt(accounts.size());
+            accounts.forEach(uuid -> putUuid(uuid, index));
+            YamlStorageBackend.writeAtomically(indexPath(segment), index.flip());
+
+            channel.force(true);
+            channel.close();
+        }
+
+        segment++;
+        records = 0;
+        segmentAccounts.clear();
+
+        channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(Money.scale());
+        header.putInt(0);
+        write(header.flip());
+    }
+
+    // Returns -1 if the segment is not valid
+    private static int readScale(final @NotNull FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (channel.read(header, 0) < HEADER_SIZE)
+            return -1;
+
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION)
+            return -1;
+
+        int scale = header.getInt();
+        return scale < 0 || scale > Money.MAX_SCALE ? -1 : scale;
+    }
+
+    private static void scan(final @NotNull FileChannel channel, int records, int scale,
+                             final @NotNull Consumer<LedgerEntry> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK * RECORD_SIZE);
+        for (int first = 0; first < records; first += READ_CHUNK) {
+            int amount = Math.min(READ_CHUNK, records - first);
+            readRecords(channel, first, amount, buffer);
+
+            for (int i = 0; i < amount; i++)
+                consumer.accept(decode(buffer, scale));
+        }
+    }
+
+    private static void readRecords(final @NotNull FileChannel channel, int first, int amount, final @NotNull ByteBuffer buffer) throws IOException {
+        buffer.clear().limit(amount * RECORD_SIZE);
+        long position = HEADER_SIZE + (long) first * RECORD_SIZE;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Ledger segment ended unexpectedly");
+        }
+
+        buffer.flip();
+    }
+
+    // Walks segments from newest to oldest, and each segment from its last record to its first
+    private @NotNull List<LedgerEntry> read(final @NotNull UUID uuid, int skip, int amount) throws IOException {
+        List<LedgerEntry> entries = new ArrayList<>(amount);
+        ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK * RECORD_SIZE);
+
+        for (int current = segment; current > 0 && entries.size() < amount; current--) {
+            if (current == segment) {
+                if (channel == null || !segmentAccounts.contains(uuid))
+                    continue;
+
+                skip = readBackward(channel, records, Money.scale(), uuid, skip, amount, entries, buffer);
+                continue;
+            }
+
+            Path path = segmentPath(current);
+            if (!Files.exists(path) || !mentions(current, uuid))
+                continue;
+
+            try (FileChannel segmentChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                int scale = readScale(segmentChannel);
+                if (scale < 0)
+                    continue;
+
+                int segmentRecords = (int) Math.min(SEGMENT_RECORDS, (segmentChannel.size() - HEADER_SIZE) / RECORD_SIZE);
+                skip = readBackward(segmentChannel, segmentRecords, scale, uuid, skip, amount, entries, buffer);
+            }
+        }
+
+        return entries;
+    }
+
+    // Returns how many matching entries are still left to skip
+    private static int readBackward(final @NotNull FileChannel channel, int records, int scale, final @NotNull UUID uuid,
+                                    int skip, int amount, final @NotNull List<LedgerEntry> entries,
+                                    final @NotNull ByteBuffer buffer) throws IOException {
+        for (int end = records; end > 0 && entries.size() < amount; end -= READ_CHUNK) {
+            int first = Math.max(0, end - READ_CHUNK);
+            readRecords(channel, first, end - first, buffer);
+
+            for (int i = end - first - 1; i >= 0 && entries.size() < amount; i--) {
+                LedgerEntry entry = decode(buffer.position(i * RECORD_SIZE), scale);
+                if (!entry.involves(uuid))
+                    continue;
+
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    entries.add(entry);
+                }
+            }
+        }
+
+        return skip;
+    }
+
+    // Binary search over the index of a sealed segment. Segments without an index are always read
+    private boolean mentions(int segment, final @NotNull UUID uuid) throws IOException {
+        Path path = indexPath(segment);
+        if (!Files.exists(path))
+            return true;
+
+        try (FileChannel index = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            if (index.read(buffer.limit(4), 0) < 4)
+                return true;
+
+            int low = 0;
+            int high = buffer.flip().getInt() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                buffer.clear();
+                if (index.read(buffer, 4 + (long) middle * 16) < 16)
+                    return true;
+
+                int result = compare(new UUID(buffer.getLong(0), buffer.getLong(8)), uuid);
+                if (result == 0)
+                    return true;
+
+                if (result < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static int compare(final @NotNull UUID a, final @NotNull UUID b) {
+        int result = Long.compare(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return result != 0 ? result : Long.compare(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private @NotNull Path segmentPath(int segment) { return folder.toPath().resolve(String.format("%08d.log", segment)); }
+
+    private @NotNull Path indexPath(int segment) { return folder.toPath().resolve(String.format("%08d.idx", segment)); }
+
+}
@@ -0,0 +1,200 @@
+package ovh.mythmc.banco.api.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.simpleyaml.configuration.ConfigurationSection;
+import org.simpleyaml.configuration.file.YamlFile;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.Money;
+import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public final class YamlStorageBackend implements StorageBackend {
+
+    private final YamlFile yamlFile;
+
+    private final BancoJournal journal;
+
+    private final SnapshotCache snapshotCache = new SnapshotCache();
+
+    private boolean journalEnabled;
+
+    // Journal entries left behind while the journal was disabled, which are removed after the next snapshot
+    private volatile boolean pendingJournal;
+
+    public YamlStorageBackend(final @NotNull File pluginFolder) {
+        this.yamlFile = new YamlFile(new File(pluginFolder, "data.yml"));
+        this.journal = new BancoJournal(new File(pluginFolder, "data.journal"));
+    }
+
+    @Override
+    public void open() throws IOException {
+        this.journalEnabled = Banco.get().getConfig().getSettings().getStorage().journal();
+
+        if (!yamlFile.exists()) {
+            if (Banco.get().getConfig().getSettings().isDebug())
+                BancoStorage.logger.info("Creating data.yml...");
+
+            yamlFile.createNewFile(true);
+            yamlFile.createSection("accounts");
+            yamlFile.save();
+        }
+    }
+
+    @Override
+    public void load(final @NotNull Consumer<AccountSnapshot> consumer) throws IOException {
+        yamlFile.load();
+
+        if (Banco.get().getConfig().getSettings().isDebug())
+            BancoStorage.logger.info("Loading accounts from data.yml...");
+
+        ConfigurationSection accounts = yamlFile.getConfigurationSection("accounts");
+        accounts.getKeys(false).forEach(key -> {
+            ConfigurationSection account = accounts.getConfigurationSection(key);
+            UUID uuid = UUID.fromString(key);
+            long amount = Money.toUnits(account.getDouble("amount"));
+            long transactions = Money.toUnits(account.getDouble("transactions"));
+
+            consumer.accept(new AccountSnapshot(uuid, amount, transactions));
+        });
+
+        // Changes written after the last snapshot are replayed on top of it
+        int replayed = journal.replay(consumer);
+
+        if (replayed > 0 && Banco.get().getConfig().getSettings().isDebug())
+            BancoStorage.logger.info("Replayed " + replayed + " journal entries");
+
+        if (journalEnabled) {
+            journal.open();
+            Banco.get().getAccountManager().registerListener(journal);
+        } else {
+            pendingJournal = replayed > 0;
+        }
+    }
+
+    @Override
+    public @NotNull SaveTask prepare(final @NotNull Collection<Account> accounts) throws IOException {
+        // Every account is rewritten, but only the ones that changed since the last capture are read again
+        List<Account> dirtyAccounts = Banco.get().getAccountManager().drainDirty();
+
+        if (!journalEnabled) {
+            if (dirtyAccounts.isEmpty() && !pendingJournal)
+                return SaveTask.NONE;
+
+            List<AccountSnapshot> snapshots = snapshotCache.capture(accounts, dirtyAccounts);
+            boolean discardJournal = pendingJournal;
+            pendingJournal = false;
+
+            return () -> {
+                try {
+                    writeSnapshot(snapshots);
+                } catch (IOException e) {
+                    Banco.get().getAccountManager().restoreDirty(dirtyAccounts);
+                    pendingJournal |= discardJournal;
+                    throw e;
+                }
+
+                if (discardJournal)
+                    journal.discard(Long.MAX_VALUE);
+            };
+        }
+
+        // Balance changes are already in the journal, so saving is just a matter of flushing it to disk
+        if (journal.entries() < Banco.get().getConfig().getSettings().getStorage().journalCompactThreshold()) {
+            if (dirtyAccounts.isEmpty())
+                return SaveTask.NONE;
+
+            // Captured with the next snapshot instead
+            snapshotCache.markStale(dirtyAccounts);
+
+            return () -> {
+                try {
+                    journal.sync();
+                } catch (IOException e) {
+                    Banco.get().getAccountManager().restoreDirty(dirtyAccounts);
+                    throw e;
+                }
+
+                if (Banco.get().getConfig().getSettings().isDebug())
+                    BancoStorage.logger.info("Journal synced (" + journal.entries() + " entries since last snapshot)");
+            };
+        }
+
+        // Rotating and capturing at the same time guarantees that the snapshot contains every rotated entry. Syncing
+        // and deleting the rotated segments is left to the storage thread
+        long rotated = journal.rotate();
+        List<AccountSnapshot> snapshots = snapshotCache.capture(accounts, dirtyAccounts);
+
+        return () -> {
+            journal.closeRotated();
+            writeSnapshot(snapshots);
+            journal.discard(rotated);
+        };
+    }
+
+    @Override
+    public void overwrite(final @NotNull Collection<AccountSnapshot> snapshots) throws IOException {
+        writeSnapshot(List.copyOf(snapshots));
+
+        // Left-over journal entries would otherwise be replayed on top of the new data
+        long rotated = journal.rotate();
+        journal.closeRotated();
+        journal.discard(rotated);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Banco.get().getAccountManager().unregisterListener(journal);
+        journal.close();
+    }
+
+    private void writeSnapshot(final @NotNull List<AccountSnapshot> snapshots) throws IOException {
+        if (Banco.get().getConfig().getSettings().isDebug())
+            BancoStorage.logger.info("Saving " + snapshots.size() + " account(s)...");
+
+        ConfigurationSection accountsSection = yamlFile.createSection("accounts");
+        snapshots.forEach(snapshot -> {
+            ConfigurationSection accountSection = accountsSection.createSection(snapshot.uuid().toString());
+            accountSection.set("amount", Money.toDouble(snapshot.amount()));
+            accountSection.set("transactions", Money.toDouble(snapshot.transactions()));
+        });
+
+        writeAtomically(Path.of(yamlFile.getFilePath()), yamlFile.saveToString());
+
+        if (Banco.get().getConfig().getSettings().isDebug())
+            BancoStorage.logger.info("Done!");
+    }
+
+    // Writes to a temporary file first so that a crash can never leave a half-written data file behind
+    static void writeAtomically(final @NotNull Path path, final @NotNull String contents) throws IOException {
+        writeAtomically(path, ByteBuffer.wrap(contents.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static void writeAtomically(final @NotNull Path path, final @NotNull ByteBuffer buffer) throws IOException {
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+
+            channel.force(true);
+        }
+
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+}
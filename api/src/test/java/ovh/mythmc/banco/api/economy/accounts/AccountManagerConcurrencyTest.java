@@ -0,0 +1,190 @@
+package ovh.mythmc.banco.api.economy.accounts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountManagerConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    private static final int OPERATIONS = 20_000;
+
+    private static final int ACCOUNTS = 16;
+
+    private static final long INITIAL_BALANCE = 1_000_000;
+
+    private final AccountManager accountManager = AccountManager.instance;
+
+    private final List<Account> accounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TestEnvironment.reset();
+        accounts.clear();
+
+        // Half of the accounts belong to online players, whose balance lives in their inventory
+        for (int i = 0; i < ACCOUNTS; i++) {
+            UUID uuid = UUID.randomUUID();
+            if (i % 2 == 0) {
+                TestEnvironment.onlinePlayers.add(uuid);
+                TestEnvironment.inventories.put(uuid, INITIAL_BALANCE);
+                accounts.add(new Account(uuid, INITIAL_BALANCE, 0));
+            } else {
+                accounts.add(new Account(uuid, 0, INITIAL_BALANCE));
+            }
+
+            accountManager.add(accounts.get(i));
+        }
+    }
+
+    @Test
+    void depositsAndWithdrawalsAreNeverLost() throws Exception {
+        AtomicLongArray expected = new AtomicLongArray(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++)
+            expected.set(i, INITIAL_BALANCE);
+
+        run(random -> {
+            int index = random.nextInt(ACCOUNTS);
+            long units = random.nextLong(1, 1_000);
+            if (random.nextBoolean()) {
+                accountManager.deposit(accounts.get(index), units);
+                expected.addAndGet(index, units);
+            } else {
+                accountManager.withdraw(accounts.get(index), units);
+                expected.addAndGet(index, -units);
+            }
+        });
+
+        for (int i = 0; i < ACCOUNTS; i++)
+            assertEquals(expected.get(i), accountManager.units(accounts.get(i)), "balance of account " + i);
+    }
+
+    @Test
+    void transfersConserveTheTotal() throws Exception {
+        run(random -> {
+            Account from = accounts.get(random.nextInt(ACCOUNTS));
+            Account to = accounts.get(random.nextInt(ACCOUNTS));
+            long units = random.nextLong(1, 50_000);
+
+            // Batches lock several accounts at once, which must not deadlock with plain transfers
+            if (random.nextInt(64) == 0) {
+                accountManager.statistics();
+            } else if (random.nextInt(4) == 0) {
+                accountManager.batch()
+                        .transfer(from, to, units)
+                        .transfer(to, from, units / 2)
+                        .apply();
+            } else {
+                accountManager.transfer(from, to, units);
+            }
+        });
+
+        long total = 0;
+        for (Account account : accounts) {
+            long units = accountManager.units(account);
+            assertTrue(units >= 0, "transfers never overdraw an account");
+            total += units;
+        }
+
+        assertEquals(INITIAL_BALANCE * ACCOUNTS, total);
+
+        EconomyStatistics statistics = accountManager.statistics();
+        assertEquals(ACCOUNTS, statistics.accounts());
+        assertEquals(total, statistics.totalUnits());
+    }
+
+    @Test
+    void mixedOperationsKeepTheTotalConsistent() throws Exception {
+        AtomicLong created = new AtomicLong();
+
+        run(random -> {
+            Account account = accounts.get(random.nextInt(ACCOUNTS));
+            long units = random.nextLong(1, 10_000);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    accountManager.deposit(account, units);
+                    created.addAndGet(units);
+                }
+                case 1 -> {
+                    accountManager.withdraw(account, units);
+                    created.addAndGet(-units);
+                }
+                case 2 -> accountManager.transfer(account, accounts.get(random.nextInt(ACCOUNTS)), units);
+                default -> accountManager.updateTransactions(account);
+            }
+        });
+
+        long total = 0;
+        for (Account account : accounts)
+            total += accountManager.units(account);
+
+        assertEquals(INITIAL_BALANCE * ACCOUNTS + created.get(), total);
+    }
+
+    @Test
+    void concurrentCreationKeepsOneAccount() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        Set<Account> created = ConcurrentHashMap.newKeySet();
+
+        run(random -> {
+            Account account = accountManager.addIfAbsent(new Account(uuid, 0, 0));
+            accountManager.deposit(account, 1);
+            created.add(account);
+        });
+
+        assertEquals(1, created.size());
+        assertSame(accountManager.get(uuid), created.iterator().next());
+        assertEquals((long) THREADS * OPERATIONS, accountManager.units(accountManager.get(uuid)));
+    }
+
+    private interface Operation {
+
+        void run(ThreadLocalRandom random);
+
+    }
+
+    // Runs the operation from every thread at once. A deadlock shows up as a timeout
+    private static void run(final Operation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < OPERATIONS; j++)
+                        operation.run(random);
+
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
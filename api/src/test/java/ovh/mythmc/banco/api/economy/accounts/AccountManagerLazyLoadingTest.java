@@ -0,0 +1,53 @@
+package ovh.mythmc.banco.api.economy.accounts;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class AccountManagerLazyLoadingTest {
+
+    private final AccountManager accountManager = AccountManager.instance;
+
+    // Accounts that are stored but not in memory
+    private final Map<UUID, Account> stored = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        TestEnvironment.reset();
+        stored.clear();
+        accountManager.setLoader(uuid -> {
+            Account account = stored.get(uuid);
+            return account == null ? null : new Account(uuid, 0, account.getTransactions());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestEnvironment.reset();
+    }
+
+    @Test
+    void loadedAccountsAreRanked() {
+        Account other = new Account(UUID.randomUUID(), 0, 5_000);
+        accountManager.add(other);
+
+        UUID uuid = UUID.randomUUID();
+        stored.put(uuid, new Account(uuid, 0, 10_000));
+
+        assertEquals(0, accountManager.getLeaderboard().rank(uuid));
+        assertNotNull(accountManager.get(uuid));
+
+        // The balance did not change while loading, so nothing else tells the leaderboard about it
+        assertEquals(1, accountManager.getLeaderboard().rank(uuid));
+        assertEquals(2, accountManager.getLeaderboard().rank(other.getUuid()));
+        assertEquals(15_000, accountManager.statistics().totalUnits());
+    }
+
+}
@@ -0,0 +1,109 @@
+package ovh.mythmc.banco.api.economy.accounts;
+
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.BancoSupplier;
+import ovh.mythmc.banco.api.economy.BancoHelper;
+import ovh.mythmc.banco.api.economy.BancoHelperSupplier;
+import ovh.mythmc.banco.api.logger.LoggerWrapper;
+import ovh.mythmc.banco.api.scheduler.BancoScheduler;
+import ovh.mythmc.banco.api.storage.BancoConfig;
+import ovh.mythmc.banco.api.storage.BancoStorage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Stand-ins for the platform: every thread owns every player, and online players' inventories are plain counters
+final class TestEnvironment {
+
+    static final Set<UUID> onlinePlayers = ConcurrentHashMap.newKeySet();
+
+    static final Map<UUID, Long> inventories = new ConcurrentHashMap<>();
+
+    static {
+        BancoSupplier.set(new TestBanco());
+        BancoHelperSupplier.set(new TestHelper());
+    }
+
+    private TestEnvironment() { }
+
+    // Resets accounts and inventories. The platform itself can only be installed once per JVM
+    static void reset() {
+        AccountManager.instance.setLoader(null);
+        AccountManager.instance.clear();
+        onlinePlayers.clear();
+        inventories.clear();
+    }
+
+    private static final class TestBanco implements Banco {
+
+        private static final LoggerWrapper logger = new LoggerWrapper() {
+            @Override
+            public void info(String message, Object... args) { }
+
+            @Override
+            public void warn(String message, Object... args) { }
+
+            @Override
+            public void error(String message, Object... args) { }
+        };
+
+        private static final BancoScheduler scheduler = new BancoScheduler() {
+            @Override
+            public boolean isOwnedByCurrentThread(@NotNull UUID uuid) { return true; }
+
+            @Override
+            public @NotNull <T> CompletableFuture<T> runForPlayer(@NotNull UUID uuid, @NotNull Supplier<T> task) {
+                return CompletableFuture.completedFuture(task.get());
+            }
+        };
+
+        @Override
+        public void reload() { }
+
+        @Override
+        public String version() { return "test"; }
+
+        @Override
+        public @NotNull LoggerWrapper getLogger() { return logger; }
+
+        @Override
+        public @NotNull BancoConfig getConfig() { throw new UnsupportedOperationException(); }
+
+        @Override
+        public @NotNull BancoStorage getStorage() { throw new UnsupportedOperationException(); }
+
+        @Override
+        public @NotNull BancoScheduler getScheduler() { return scheduler; }
+
+    }
+
+    // Inventories hold any amount, so nothing is ever left over
+    private static final class TestHelper implements BancoHelper {
+
+        @Override
+        public long add(UUID uuid, long units) {
+            inventories.merge(uuid, units, Long::sum);
+            return 0;
+        }
+
+        @Override
+        public long remove(UUID uuid, long units) {
+            long removed = Math.min(units, inventories.getOrDefault(uuid, 0L));
+            inventories.merge(uuid, -removed, Long::sum);
+            return units - removed;
+        }
+
+        @Override
+        public boolean isOnline(UUID uuid) { return onlinePlayers.contains(uuid); }
+
+        @Override
+        public long getInventoryUnits(UUID uuid) { return inventories.getOrDefault(uuid, 0L); }
+
+    }
+
+}
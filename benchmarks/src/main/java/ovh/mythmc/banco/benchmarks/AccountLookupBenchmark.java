@@ -0,0 +1,55 @@
+package ovh.mythmc.banco.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountManager;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// AccountManager.get with every account in memory, which used to be a linear scan
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountLookupBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int accounts;
+
+    private UUID[] uuids;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkEnvironment.install();
+        AccountManager.instance.clear();
+
+        uuids = new UUID[accounts];
+        for (int i = 0; i < accounts; i++) {
+            uuids[i] = UUID.randomUUID();
+            AccountManager.instance.add(new Account(uuids[i], 100, 0));
+        }
+
+        AccountManager.instance.drainDirty();
+    }
+
+    @Benchmark
+    public Account get() {
+        return AccountManager.instance.get(uuids[ThreadLocalRandom.current().nextInt(accounts)]);
+    }
+
+}
@@ -0,0 +1,116 @@
+package ovh.mythmc.banco.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.BancoSupplier;
+import ovh.mythmc.banco.api.economy.BancoHelper;
+import ovh.mythmc.banco.api.economy.BancoHelperSupplier;
+import ovh.mythmc.banco.api.logger.LoggerWrapper;
+import ovh.mythmc.banco.api.scheduler.BancoScheduler;
+import ovh.mythmc.banco.api.storage.BancoConfig;
+import ovh.mythmc.banco.api.storage.BancoStorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Stand-ins for the platform, so that benchmarks run without a server. Every thread owns every player, nobody is
+// online and the default config.yml is loaded from a temporary folder
+final class BenchmarkEnvironment {
+
+    private static File folder;
+
+    private BenchmarkEnvironment() { }
+
+    // Can be called by every benchmark, the platform is only installed once per JVM
+    static synchronized void install() {
+        if (folder != null)
+            return;
+
+        try {
+            folder = Files.createTempDirectory("banco-benchmarks").toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Storage is never loaded, so saves triggered by the account manager are no-ops and the ledger stays closed
+        BancoConfig config = new BancoConfig(folder);
+        BancoSupplier.set(new BenchmarkBanco(config, new BancoStorage(folder)));
+        BancoHelperSupplier.set(new BenchmarkHelper());
+        config.load();
+    }
+
+    // Empty folder for benchmarks that write files
+    static @NotNull File createFolder(final @NotNull String name) {
+        try {
+            return Files.createTempDirectory(name).toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record BenchmarkBanco(@NotNull BancoConfig config, @NotNull BancoStorage storage) implements Banco {
+
+        private static final LoggerWrapper logger = new LoggerWrapper() {
+            @Override
+            public void info(String message, Object... args) { }
+
+            @Override
+            public void warn(String message, Object... args) { }
+
+            @Override
+            public void error(String message, Object... args) { }
+        };
+
+        private static final BancoScheduler scheduler = new BancoScheduler() {
+            @Override
+            public boolean isOwnedByCurrentThread(@NotNull UUID uuid) { return true; }
+
+            @Override
+            public @NotNull <T> CompletableFuture<T> runForPlayer(@NotNull UUID uuid, @NotNull Supplier<T> task) {
+                return CompletableFuture.completedFuture(task.get());
+            }
+        };
+
+        @Override
+        public void reload() { }
+
+        @Override
+        public String version() { return "benchmark"; }
+
+        @Override
+        public @NotNull LoggerWrapper getLogger() { return logger; }
+
+        @Override
+        public @NotNull BancoConfig getConfig() { return config; }
+
+        @Override
+        public @NotNull BancoStorage getStorage() { return storage; }
+
+        @Override
+        public @NotNull BancoScheduler getScheduler() { return scheduler; }
+
+    }
+
+    // Nobody is online, so balances never involve inventories
+    private static final class BenchmarkHelper implements BancoHelper {
+
+        @Override
+        public long add(UUID uuid, long units) { return units; }
+
+        @Override
+        public long remove(UUID uuid, long units) { return units; }
+
+        @Override
+        public boolean isOnline(UUID uuid) { return false; }
+
+        @Override
+        public long getInventoryUnits(UUID uuid) { return 0; }
+
+    }
+
+}
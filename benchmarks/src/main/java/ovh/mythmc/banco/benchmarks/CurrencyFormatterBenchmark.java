@@ -0,0 +1,62 @@
+package ovh.mythmc.banco.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ovh.mythmc.banco.api.economy.CurrencyFormatter;
+import ovh.mythmc.banco.api.economy.Money;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+// Formatting balances with the shared formatter, next to the DecimalFormat that used to be created for every message
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyFormatterBenchmark {
+
+    private long units;
+
+    private BigDecimal amount;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.install();
+
+        units = 175_330;
+        amount = Money.toDecimal(units);
+    }
+
+    @Benchmark
+    public String formatUnits() {
+        return CurrencyFormatter.get().format(units);
+    }
+
+    @Benchmark
+    public String formatDecimal() {
+        return CurrencyFormatter.get().format(amount);
+    }
+
+    @Benchmark
+    public String formatCompact() {
+        return CurrencyFormatter.get().formatCompact(units);
+    }
+
+    // What MessageUtil.format did before the formatter was shared
+    @Benchmark
+    public String newDecimalFormat() {
+        return new DecimalFormat(CurrencyFormatter.get().pattern()).format(amount);
+    }
+
+}
@@ -0,0 +1,60 @@
+package ovh.mythmc.banco.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ovh.mythmc.banco.api.economy.Money;
+import ovh.mythmc.banco.common.economy.MaterialValueTable;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Paying out an amount as items, using the values from the default config.yml
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaterialValueTableBenchmark {
+
+    @Param({ "1.50", "1000", "1000000" })
+    private String amount;
+
+    private long units;
+
+    private MaterialValueTable table;
+
+    private long stacks;
+
+    private MaterialValueTable.StackConsumer consumer;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.install();
+
+        units = Money.toUnits(new BigDecimal(amount));
+        table = MaterialValueTable.get();
+        consumer = (material, count) -> stacks += count;
+    }
+
+    @Benchmark
+    public long split() {
+        return table.split(units, consumer) + stacks;
+    }
+
+    // Includes the revision check every caller goes through
+    @Benchmark
+    public long getAndSplit() {
+        return MaterialValueTable.get().split(units, consumer) + stacks;
+    }
+
+}
@@ -0,0 +1,93 @@
+package ovh.mythmc.banco.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ovh.mythmc.banco.api.economy.Money;
+import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountManager;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Balance operations on fixed-point longs, next to the BigDecimal arithmetic they replaced. Run with -prof gc to
+// compare allocation rates
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    // Large enough that withdrawals never run out during a run
+    private static final long BALANCE = 1_000_000_000_000_000L;
+
+    private Account account;
+
+    private long units = 150;
+
+    private long otherUnits = 2599;
+
+    private BigDecimal amount = new BigDecimal("1.50");
+
+    private BigDecimal otherAmount = new BigDecimal("25.99");
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.install();
+
+        account = new Account(UUID.randomUUID(), BALANCE, 0);
+        AccountManager.instance.add(account);
+    }
+
+    @Benchmark
+    public void deposit() {
+        AccountManager.instance.deposit(account, units);
+    }
+
+    @Benchmark
+    public void withdraw() {
+        AccountManager.instance.withdraw(account, units);
+    }
+
+    @Benchmark
+    public long units() {
+        return AccountManager.instance.units(account);
+    }
+
+    // Converts to BigDecimal at the API boundary
+    @Benchmark
+    public BigDecimal amount() {
+        return account.amount();
+    }
+
+    @Benchmark
+    public long addUnits() {
+        return Money.add(units, otherUnits);
+    }
+
+    @Benchmark
+    public BigDecimal addBigDecimal() {
+        return amount.add(otherAmount);
+    }
+
+    @Benchmark
+    public long multiplyUnits() {
+        return Money.multiply(units, 64);
+    }
+
+    @Benchmark
+    public BigDecimal multiplyBigDecimal() {
+        return amount.multiply(BigDecimal.valueOf(64));
+    }
+
+}
@@ -0,0 +1,81 @@
+package ovh.mythmc.banco.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ovh.mythmc.banco.api.economy.accounts.AccountSnapshot;
+import ovh.mythmc.banco.api.storage.BinaryStorageBackend;
+import ovh.mythmc.banco.api.storage.StorageBackend;
+import ovh.mythmc.banco.api.storage.YamlStorageBackend;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Reading and writing every account with the yaml and binary storage types, as done on startup and on each save
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StorageBenchmark {
+
+    @Param({ "yaml", "binary" })
+    private String type;
+
+    @Param({ "1000", "100000" })
+    private int accounts;
+
+    private StorageBackend backend;
+
+    private List<AccountSnapshot> snapshots;
+
+    private long loaded;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkEnvironment.install();
+
+        File folder = BenchmarkEnvironment.createFolder("banco-storage");
+        backend = type.equals("yaml") ? new YamlStorageBackend(folder) : new BinaryStorageBackend(folder);
+        backend.open();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        snapshots = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++)
+            snapshots.add(new AccountSnapshot(UUID.randomUUID(), random.nextLong(10_000_000), random.nextLong(10_000)));
+
+        backend.overwrite(snapshots);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        backend.close();
+    }
+
+    @Benchmark
+    public long load() throws IOException {
+        backend.load(snapshot -> loaded += snapshot.amount());
+        return loaded;
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        backend.overwrite(snapshots);
+    }
+
+}
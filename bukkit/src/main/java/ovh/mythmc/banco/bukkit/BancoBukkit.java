@@ -4,6 +4,7 @@ import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import org.bukkit.command.PluginCommand;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import ovh.mythmc.banco.bukkit.commands.BalanceCommand;
+import ovh.mythmc.banco.bukkit.commands.BalanceTopCommand;
 import ovh.mythmc.banco.bukkit.commands.BancoCommand;
 import ovh.mythmc.banco.common.impl.BancoHelperImpl;
 import ovh.mythmc.banco.common.BancoPlaceholderExpansion;
@@ -15,7 +16,10 @@ import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.logger.LoggerWrapper;
+import ovh.mythmc.banco.api.scheduler.BancoScheduler;
+import ovh.mythmc.banco.common.economy.InventoryValueCache;
 import ovh.mythmc.banco.common.listeners.EntityDeathListener;
+import ovh.mythmc.banco.common.listeners.InventoryChangeListener;
 import ovh.mythmc.banco.common.listeners.PlayerJoinListener;
 import ovh.mythmc.banco.common.listeners.PlayerQuitListener;
 import ovh.mythmc.banco.common.util.TranslationUtil;
@@ -33,8 +37,12 @@ public final class BancoBukkit extends BancoBootstrap<BancoBukkitPlugin> {
 
     private BancoVaultImpl vaultImpl;
 
+    private BancoPlaceholderExpansion placeholderExpansion;
+
     private BukkitTask autoSaveTask;
 
+    private final BancoScheduler scheduler;
+
     private final LoggerWrapper logger = new LoggerWrapper() {
         @Override
         public void info(String message, Object... args) {
@@ -55,13 +63,14 @@ public final class BancoBukkit extends BancoBootstrap<BancoBukkitPlugin> {
     public BancoBukkit(final @NotNull BancoBukkitPlugin plugin) {
         super(plugin, plugin.getDataFolder());
         instance = this;
+        this.scheduler = new BancoBukkitScheduler(plugin);
     }
 
     @Override
     public void enable() {
         TranslationUtil.register();
         if (Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI"))
-            new BancoPlaceholderExpansion();
+            placeholderExpansion = new BancoPlaceholderExpansion();
 
         vaultImpl = new BancoVaultImpl();
         vaultImpl.hook(getPlugin());
@@ -81,6 +90,9 @@ public final class BancoBukkit extends BancoBootstrap<BancoBukkitPlugin> {
     public void shutdown() {
         vaultImpl.unhook();
 
+        if (placeholderExpansion != null)
+            placeholderExpansion.unregister();
+
         if (autoSaveTask != null)
             stopAutoSaver();
 
@@ -88,6 +100,8 @@ public final class BancoBukkit extends BancoBootstrap<BancoBukkitPlugin> {
             Banco.get().getStorage().save();
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            Banco.get().getStorage().clear();
         }
     }
 
@@ -101,32 +115,50 @@ public final class BancoBukkit extends BancoBootstrap<BancoBukkitPlugin> {
             Bukkit.getPluginManager().registerEvents(new EntityDeathListener(), getPlugin());
         Bukkit.getPluginManager().registerEvents(new PlayerJoinListener(), getPlugin());
         Bukkit.getPluginManager().registerEvents(new PlayerQuitListener(), getPlugin());
+        Bukkit.getPluginManager().registerEvents(new InventoryChangeListener(), getPlugin());
     }
 
     private void registerCommands() {
         PluginCommand banco = getPlugin().getCommand("banco");
         PluginCommand balance = getPlugin().getCommand("balance");
         PluginCommand pay = getPlugin().getCommand("pay");
+        PluginCommand baltop = getPlugin().getCommand("baltop");
 
         Objects.requireNonNull(banco).setExecutor(new BancoCommand());
         Objects.requireNonNull(balance).setExecutor(new BalanceCommand());
         Objects.requireNonNull(pay).setExecutor(new PayCommand());
+        Objects.requireNonNull(baltop).setExecutor(new BalanceTopCommand());
 
         if (!Banco.get().getConfig().getSettings().getCommands().balanceEnabled())
             balance.setPermission("banco.admin");
 
         if (!Banco.get().getConfig().getSettings().getCommands().payEnabled())
             pay.setPermission("banco.admin");
+
+        if (!Banco.get().getConfig().getSettings().getCommands().baltopEnabled())
+            baltop.setPermission("banco.admin");
     }
 
     private void startAutoSaver() {
-        this.autoSaveTask = Bukkit.getScheduler().runTaskTimerAsynchronously(getPlugin(), () -> {
-            try {
-                Banco.get().getStorage().save();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        long frequency = Banco.get().getConfig().getSettings().getAutoSave().frequency() * 20L;
+
+        // Accounts are captured on the main thread and written to disk in the background
+        this.autoSaveTask = Bukkit.getScheduler().runTaskTimer(getPlugin(), () -> {
+            Banco.get().getStorage().saveAsync().exceptionally(throwable -> {
+                getLogger().error("Could not save data: {}", throwable.getMessage());
+                return null;
+            });
+
+            if (Banco.get().getConfig().getSettings().isDebug()) {
+                getLogger().info("Inventory value cache: {} hits, {} misses",
+                        InventoryValueCache.instance.hits(), InventoryValueCache.instance.misses());
+
+                if (placeholderExpansion != null)
+                    getLogger().info("Placeholders: {} requests ({}/s), {}% served from cache",
+                            placeholderExpansion.requests(), String.format("%.1f", placeholderExpansion.requestRate()),
+                            placeholderExpansion.requests() == 0 ? 100 : placeholderExpansion.hits() * 100 / placeholderExpansion.requests());
             }
-        }, 0, Banco.get().getConfig().getSettings().getAutoSave().frequency() * 20L);
+        }, frequency, frequency);
     }
 
     private void stopAutoSaver() {
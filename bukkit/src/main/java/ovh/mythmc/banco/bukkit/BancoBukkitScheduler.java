@@ -0,0 +1,56 @@
+package ovh.mythmc.banco.bukkit;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.scheduler.BancoScheduler;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Every player is owned by the main thread
+final class BancoBukkitScheduler implements BancoScheduler {
+
+    private final Plugin plugin;
+
+    BancoBukkitScheduler(final @NotNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(@NotNull UUID uuid) {
+        return Bukkit.isPrimaryThread() || Bukkit.getPlayer(uuid) == null;
+    }
+
+    @Override
+    public @NotNull <T> CompletableFuture<T> runForPlayer(@NotNull UUID uuid, @NotNull Supplier<T> task) {
+        if (isOwnedByCurrentThread(uuid))
+            return complete(task);
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                try {
+                    future.complete(task.get());
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            });
+        } catch (IllegalPluginAccessException e) { // Plugin is being disabled
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    private static <T> CompletableFuture<T> complete(final @NotNull Supplier<T> task) {
+        try {
+            return CompletableFuture.completedFuture(task.get());
+        } catch (Throwable throwable) {
+            return CompletableFuture.failedFuture(throwable);
+        }
+    }
+
+}
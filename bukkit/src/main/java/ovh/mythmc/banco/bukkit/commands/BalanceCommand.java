@@ -35,7 +35,7 @@ public class BalanceCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        Account target = Banco.get().getAccountManager().get(PlayerUtil.getUuid(args[0]));
+        Account target = Banco.get().getAccountManager().get(PlayerUtil.resolveUuid(args[0]));
 
         if (target == null) {
             MessageUtil.error(BancoBukkit.adventure().sender(sender), translatable("banco.errors.player-not-found", text(args[0])));
@@ -45,7 +45,7 @@ public class BalanceCommand implements CommandExecutor, TabCompleter {
         BigDecimal amount = target.amount();
 
         MessageUtil.info(BancoBukkit.adventure().sender(sender), translatable("banco.commands.balance.others",
-                text(Bukkit.getOfflinePlayer(target.getUuid()).getName()),
+                text(PlayerUtil.getName(target.getUuid())),
                 text(MessageUtil.format(amount)),
                 text(Banco.get().getConfig().getSettings().getCurrency().symbol()))
         );
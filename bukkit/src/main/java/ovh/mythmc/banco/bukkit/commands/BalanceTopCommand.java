@@ -0,0 +1,71 @@
+package ovh.mythmc.banco.bukkit.commands;
+
+import net.kyori.adventure.audience.Audience;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.accounts.BalanceLeaderboard;
+import ovh.mythmc.banco.bukkit.BancoBukkit;
+import ovh.mythmc.banco.common.util.MathUtil;
+import ovh.mythmc.banco.common.util.MessageUtil;
+import ovh.mythmc.banco.common.util.PlayerUtil;
+
+import java.util.List;
+import java.util.Objects;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.Component.translatable;
+
+public class BalanceTopCommand implements CommandExecutor, TabCompleter {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String s, @NotNull String[] args) {
+        Audience audience = BancoBukkit.adventure().sender(sender);
+
+        int page = 1;
+        if (args.length > 0) {
+            if (!MathUtil.isInteger(args[0]) || Integer.parseInt(args[0]) < 1) {
+                MessageUtil.error(audience, translatable("banco.errors.invalid-value", text(args[0])));
+                return true;
+            }
+
+            page = Integer.parseInt(args[0]);
+        }
+
+        BalanceLeaderboard leaderboard = Banco.get().getAccountManager().getLeaderboard();
+        MessageUtil.info(audience, translatable("banco.commands.baltop",
+                text(page),
+                text(leaderboard.pages(PAGE_SIZE)))
+        );
+
+        for (BalanceLeaderboard.Entry entry : leaderboard.page(page, PAGE_SIZE)) {
+            audience.sendMessage(translatable("banco.commands.baltop.entry",
+                    text(entry.rank()),
+                    text(Objects.requireNonNullElse(PlayerUtil.getName(entry.uuid()), entry.uuid().toString())),
+                    text(MessageUtil.format(entry.amount())),
+                    text(Banco.get().getConfig().getSettings().getCurrency().symbol())
+            ).color(MessageUtil.TEXT_COLOR));
+        }
+
+        if (sender instanceof Player player) {
+            int rank = leaderboard.rank(player.getUniqueId());
+            if (rank > 0)
+                MessageUtil.info(audience, translatable("banco.commands.baltop.rank", text(rank), text(leaderboard.size())));
+        }
+
+        return true;
+    }
+
+    @Override
+    public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String s, @NotNull String[] args) {
+        return List.of();
+    }
+
+}
@@ -6,6 +6,7 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.Banco;
 import org.jetbrains.annotations.Nullable;
 import ovh.mythmc.banco.bukkit.commands.banco.*;
 import ovh.mythmc.banco.common.util.MessageUtil;
@@ -25,6 +26,9 @@ public class BancoCommand implements CommandExecutor, TabCompleter {
         subCommands.put("take", new TakeSubcommand());
         subCommands.put("reload", new ReloadSubcommand());
         subCommands.put("save", new SaveSubcommand());
+        subCommands.put("convert", new ConvertSubcommand());
+        subCommands.put("stats", new StatsSubcommand());
+        subCommands.put("history", new HistorySubcommand());
     }
 
     @Override
@@ -48,10 +52,12 @@ public class BancoCommand implements CommandExecutor, TabCompleter {
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String s, @NotNull String[] args) {
         if (args.length == 2) {
             switch (args[0]) {
-                case "give", "take", "set":
+                case "give", "take", "set", "history":
                     List<String> onlinePlayers = new ArrayList<>();
                     Bukkit.getOnlinePlayers().forEach(player -> onlinePlayers.add(player.getName()));
                     return List.copyOf(onlinePlayers);
+                case "convert":
+                    return List.copyOf(Banco.get().getStorage().types());
             }
         }
 
@@ -11,6 +11,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountManager;
+import ovh.mythmc.banco.api.economy.accounts.TransactionBatch;
 import ovh.mythmc.banco.bukkit.BancoBukkit;
 import ovh.mythmc.banco.common.util.MathUtil;
 import ovh.mythmc.banco.common.util.MessageUtil;
@@ -36,7 +38,7 @@ public class PayCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        Account target = Banco.get().getAccountManager().get(PlayerUtil.getUuid(args[0]));
+        Account target = Banco.get().getAccountManager().get(PlayerUtil.resolveUuid(args[0]));
         if (target == null) {
             MessageUtil.error(BancoBukkit.adventure().sender(sender), translatable("banco.errors.player-not-found", text(args[0])));
             return true;
@@ -53,23 +55,29 @@ public class PayCommand implements CommandExecutor, TabCompleter {
         }
 
         BigDecimal amount = BigDecimal.valueOf(Double.parseDouble(args[1]));
-        if (Banco.get().getAccountManager().amount(source).compareTo(amount) < 0) {
+        TransactionBatch.Result result;
+        try (AccountManager.Cause ignored = Banco.get().getAccountManager().withCause("pay")) {
+            result = Banco.get().getAccountManager().transfer(source, target, amount);
+        }
+        if (result == TransactionBatch.Result.INSUFFICIENT_FUNDS) {
             MessageUtil.error(BancoBukkit.adventure().sender(sender), "banco.errors.not-enough-funds");
             return true;
         }
 
-        Banco.get().getAccountManager().withdraw(source, amount);
-        Banco.get().getAccountManager().deposit(target, amount);
+        if (result != TransactionBatch.Result.SUCCESS) {
+            MessageUtil.error(BancoBukkit.adventure().sender(sender), translatable("banco.errors.invalid-value", text(args[1])));
+            return true;
+        }
 
         MessageUtil.success(BancoBukkit.adventure().sender(sender), translatable("banco.commands.pay.success",
                 text(MessageUtil.format(amount)),
                 text(Banco.get().getConfig().getSettings().getCurrency().symbol()),
-                text(Bukkit.getOfflinePlayer(target.getUuid()).getName()))
+                text(PlayerUtil.getName(target.getUuid())))
         );
 
         if (Bukkit.getOfflinePlayer(target.getUuid()).isOnline()) {
             MessageUtil.info((Audience) Bukkit.getOfflinePlayer(target.getUuid()).getPlayer(), translatable("banco.commands.pay.received",
-                    text(Bukkit.getOfflinePlayer(source.getUuid()).getName()),
+                    text(PlayerUtil.getName(source.getUuid())),
                     text(MessageUtil.format(amount)),
                     text(Banco.get().getConfig().getSettings().getCurrency().symbol())
             ));
@@ -0,0 +1,39 @@
+package ovh.mythmc.banco.bukkit.commands.banco;
+
+import net.kyori.adventure.audience.Audience;
+import org.bukkit.command.CommandSender;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.accounts.EconomyStatistics;
+import ovh.mythmc.banco.bukkit.BancoBukkit;
+import ovh.mythmc.banco.common.util.MessageUtil;
+
+import java.math.BigDecimal;
+import java.util.function.BiConsumer;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.Component.translatable;
+
+public class StatsSubcommand implements BiConsumer<CommandSender, String[]> {
+
+    @Override
+    public void accept(CommandSender sender, String[] args) {
+        Audience audience = BancoBukkit.adventure().sender(sender);
+        EconomyStatistics statistics = Banco.get().getAccountManager().statistics();
+        String symbol = Banco.get().getConfig().getSettings().getCurrency().symbol();
+
+        MessageUtil.info(audience, translatable("banco.commands.banco.stats", text(statistics.accounts())));
+        line(audience, "banco.commands.banco.stats.total", statistics.total(), symbol);
+        line(audience, "banco.commands.banco.stats.average", statistics.average(), symbol);
+        line(audience, "banco.commands.banco.stats.median", statistics.median(), symbol);
+        audience.sendMessage(translatable("banco.commands.banco.stats.top",
+                text(MessageUtil.format(statistics.topOnePercent())),
+                text(symbol),
+                text(String.format("%.1f", statistics.topOnePercentShare() * 100))
+        ).color(MessageUtil.TEXT_COLOR));
+    }
+
+    private static void line(Audience audience, String key, BigDecimal amount, String symbol) {
+        audience.sendMessage(translatable(key, text(MessageUtil.format(amount)), text(symbol)).color(MessageUtil.TEXT_COLOR));
+    }
+
+}
@@ -3,6 +3,7 @@ package ovh.mythmc.banco.bukkit.commands.banco;
 import org.bukkit.command.CommandSender;
 import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountManager;
 import ovh.mythmc.banco.common.util.MathUtil;
 import ovh.mythmc.banco.common.util.MessageUtil;
 import ovh.mythmc.banco.common.util.PlayerUtil;
@@ -23,7 +24,7 @@ public class TakeSubcommand implements BiConsumer<CommandSender, String[]> {
             return;
         }
 
-        Account target = Banco.get().getAccountManager().get(PlayerUtil.getUuid(args[0]));
+        Account target = Banco.get().getAccountManager().get(PlayerUtil.resolveUuid(args[0]));
         if (target == null) {
             MessageUtil.error(BancoBukkit.adventure().sender(sender), translatable("banco.errors.player-not-found", text(args[0])));
             return;
@@ -35,7 +36,9 @@ public class TakeSubcommand implements BiConsumer<CommandSender, String[]> {
         }
 
         BigDecimal amount = BigDecimal.valueOf(Double.parseDouble(args[1]));
-        Banco.get().getAccountManager().withdraw(target, amount);
+        try (AccountManager.Cause ignored = Banco.get().getAccountManager().withCause("take:" + sender.getName())) {
+            Banco.get().getAccountManager().withdraw(target, amount);
+        }
         MessageUtil.success(BancoBukkit.adventure().sender(sender), translatable("banco.commands.banco.take.success",
                 text(args[0]),
                 text(MessageUtil.format(amount)),
@@ -4,13 +4,78 @@ import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import ovh.mythmc.banco.api.Banco;
-import ovh.mythmc.banco.api.economy.BancoHelper;
-import ovh.mythmc.banco.common.util.MessageUtil;
+import ovh.mythmc.banco.api.economy.CurrencyFormatter;
+import ovh.mythmc.banco.api.economy.Money;
+import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountListener;
+import ovh.mythmc.banco.common.economy.InventoryValueCache;
 
-public class BancoPlaceholderExpansion extends PlaceholderExpansion {
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Scoreboard and tab plugins request placeholders several times per second for every player, so formatted balances
+// are cached until the balance or, for online players, the inventory changes
+public class BancoPlaceholderExpansion extends PlaceholderExpansion implements AccountListener {
+
+    // Entries are only dropped when balances change, so the whole cache is cleared once it grows past this
+    private static final int MAX_ENTRIES = 4096;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private long lastReportRequests;
+
+    private long lastReportTime = System.nanoTime();
+
+    // Strings are computed on first use, since most servers only use one of them
+    private static final class Entry {
+
+        private final long units;
+
+        private final CurrencyFormatter formatter;
+
+        // InventoryValueCache.invalidatedAt() when the entry was created, 0 for players who are not online
+        private final long inventoryStamp;
+
+        private final long createdAt = System.nanoTime();
+
+        private String balance;
+
+        private String balanceRaw;
+
+        private String balanceShort;
+
+        private Entry(long units, CurrencyFormatter formatter, long inventoryStamp) {
+            this.units = units;
+            this.formatter = formatter;
+            this.inventoryStamp = inventoryStamp;
+        }
+
+        // Inventories can also change in ways that are never reported, so entries of online players expire as quickly
+        // as the inventory values they are based on
+        private boolean isValid(final @NotNull UUID uuid, final @NotNull CurrencyFormatter formatter) {
+            if (this.formatter != formatter)
+                return false;
+
+            long stamp = InventoryValueCache.instance.invalidatedAt(uuid);
+            if (stamp != inventoryStamp)
+                return false;
+
+            return stamp == 0 || System.nanoTime() - createdAt < InventoryValueCache.MAX_AGE_NANOS;
+        }
+
+    }
 
     public BancoPlaceholderExpansion() {
         register();
+        Banco.get().getAccountManager().registerListener(this);
     }
 
     @Override
@@ -33,10 +98,49 @@ public class BancoPlaceholderExpansion extends PlaceholderExpansion {
         return true;
     }
 
+    @Override
+    public boolean unregister() {
+        Banco.get().getAccountManager().unregisterListener(this);
+        entries.clear();
+        return super.unregister();
+    }
+
     @Override
     public String onRequest(OfflinePlayer player, @NotNull String params) {
+        requests.increment();
+
         if (params.equalsIgnoreCase("balance")) {
-            return MessageUtil.format(BancoHelper.get().getInventoryValue(player.getUniqueId()));
+            if (player == null)
+                return "";
+
+            Entry entry = entry(player.getUniqueId());
+            if (entry.balance == null)
+                entry.balance = entry.formatter.format(entry.units);
+
+            return entry.balance;
+        } else if (params.equalsIgnoreCase("balance_raw")) {
+            if (player == null)
+                return "";
+
+            Entry entry = entry(player.getUniqueId());
+            if (entry.balanceRaw == null)
+                entry.balanceRaw = Money.toDecimal(entry.units).toPlainString();
+
+            return entry.balanceRaw;
+        } else if (params.equalsIgnoreCase("balance_short")) {
+            if (player == null)
+                return "";
+
+            Entry entry = entry(player.getUniqueId());
+            if (entry.balanceShort == null)
+                entry.balanceShort = entry.formatter.formatCompact(entry.units);
+
+            return entry.balanceShort;
+        } else if (params.equalsIgnoreCase("rank")) {
+            if (player == null)
+                return "";
+
+            return String.valueOf(Banco.get().getAccountManager().getLeaderboard().rank(player.getUniqueId()));
         } else if (params.equalsIgnoreCase("symbol")) {
             return Banco.get().getConfig().getSettings().getCurrency().symbol();
         } else if (params.equalsIgnoreCase("name_plural")) {
@@ -50,4 +154,68 @@ public class BancoPlaceholderExpansion extends PlaceholderExpansion {
         return null;
     }
 
+    @Override
+    public void onBalanceChange(@NotNull Account account, long previous, long current) {
+        invalidations.increment();
+        entries.remove(account.getUuid());
+    }
+
+    // Cached entries are served without reading the balance. onBalanceChange drops them as soon as the balance changes,
+    // and inventory changes are noticed through InventoryValueCache. Reloading the configuration replaces the
+    // formatter, which invalidates every entry
+    private @NotNull Entry entry(final @NotNull UUID uuid) {
+        CurrencyFormatter formatter = CurrencyFormatter.get();
+        Entry entry = entries.get(uuid);
+        if (entry != null && entry.isValid(uuid, formatter)) {
+            hits.increment();
+            return entry;
+        }
+
+        // A balance change while the entry is being created could leave a stale entry behind, so it is dropped again
+        // if anything was invalidated in the meantime
+        long stamp = invalidations.sum();
+        long inventoryStamp = InventoryValueCache.instance.invalidatedAt(uuid);
+        Account account = Banco.get().getAccountManager().get(uuid);
+        entry = new Entry(account == null ? 0 : units(account), formatter, inventoryStamp);
+        if (account == null)
+            return entry;
+
+        // Same as InventoryValueCache, values read right after an inventory event may not include it yet
+        if (inventoryStamp != 0 && System.nanoTime() - inventoryStamp < InventoryValueCache.SETTLE_NANOS)
+            return entry;
+
+        if (entries.size() >= MAX_ENTRIES)
+            entries.clear();
+
+        entries.put(uuid, entry);
+        if (invalidations.sum() != stamp)
+            entries.remove(uuid, entry);
+
+        return entry;
+    }
+
+    // Same as in BancoVaultImpl: the inventory is only looked at on the thread that owns the player, and only
+    // valued again if it changed since the last read
+    private static long units(final @NotNull Account account) {
+        if (Banco.get().getScheduler().isOwnedByCurrentThread(account.getUuid()))
+            return Banco.get().getAccountManager().units(account);
+
+        return Banco.get().getAccountManager().cachedUnits(account);
+    }
+
+    public long requests() { return requests.sum(); }
+
+    public long hits() { return hits.sum(); }
+
+    // Average number of requests per second since the last call
+    public synchronized double requestRate() {
+        long now = System.nanoTime();
+        long total = requests.sum();
+        double rate = (total - lastReportRequests) / ((now - lastReportTime) / 1e9);
+
+        lastReportRequests = total;
+        lastReportTime = now;
+        return rate;
+    }
+
 }
@@ -7,12 +7,16 @@ import org.bukkit.OfflinePlayer;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.ServicePriority;
 import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.CurrencyFormatter;
+import ovh.mythmc.banco.api.economy.Money;
 import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountManager;
 import ovh.mythmc.banco.common.util.PlayerUtil;
 
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 public class BancoVaultImpl implements Economy {
 
@@ -41,12 +45,12 @@ public class BancoVaultImpl implements Economy {
 
     @Override
     public int fractionalDigits() {
-        return 0;
+        return Money.scale();
     }
 
     @Override
     public String format(double v) {
-        return v + Banco.get().getConfig().getSettings().getCurrency().symbol();
+        return CurrencyFormatter.get().format(BigDecimal.valueOf(v)) + Banco.get().getConfig().getSettings().getCurrency().symbol();
     }
 
     @Override
@@ -61,12 +65,12 @@ public class BancoVaultImpl implements Economy {
 
     @Override
     public boolean hasAccount(String s) {
-        return Banco.get().getAccountManager().get(PlayerUtil.getUuid(s)) != null;
+        return hasAccount(PlayerUtil.resolveUuid(s));
     }
 
     @Override
     public boolean hasAccount(OfflinePlayer offlinePlayer) {
-        return hasAccount(offlinePlayer.getName());
+        return hasAccount(offlinePlayer.getUniqueId());
     }
 
     @Override
@@ -76,20 +80,21 @@ public class BancoVaultImpl implements Economy {
 
     @Override
     public boolean hasAccount(OfflinePlayer offlinePlayer, String s) {
-        return hasAccount(offlinePlayer.getName());
+        return hasAccount(offlinePlayer);
+    }
+
+    private boolean hasAccount(UUID uuid) {
+        return Banco.get().getAccountManager().get(uuid) != null;
     }
 
     @Override
     public double getBalance(String s) {
-        if (!hasAccount(s))
-            return 0;
-
-        return Banco.get().getAccountManager().amount(Banco.get().getAccountManager().get(PlayerUtil.getUuid(s))).doubleValue();
+        return getBalance(PlayerUtil.resolveUuid(s));
     }
 
     @Override
     public double getBalance(OfflinePlayer offlinePlayer) {
-        return getBalance(offlinePlayer.getName());
+        return getBalance(offlinePlayer.getUniqueId());
     }
 
     @Override
@@ -102,14 +107,32 @@ public class BancoVaultImpl implements Economy {
         return getBalance(offlinePlayer);
     }
 
+    private double getBalance(UUID uuid) {
+        Account account = Banco.get().getAccountManager().get(uuid);
+        if (account == null)
+            return 0;
+
+        return Money.toDouble(units(account));
+    }
+
+    // Other plugins tend to call getBalance and has several times per transaction, often from async threads. The last
+    // known balance is returned right away, except on the thread that owns the player, where the inventory value
+    // cache is checked so that items picked up since the last read are taken into account
+    private long units(Account account) {
+        if (Banco.get().getScheduler().isOwnedByCurrentThread(account.getUuid()))
+            return Banco.get().getAccountManager().units(account);
+
+        return Banco.get().getAccountManager().cachedUnits(account);
+    }
+
     @Override
     public boolean has(String s, double v) {
-        return getBalance(s) >= v;
+        return has(PlayerUtil.resolveUuid(s), v);
     }
 
     @Override
     public boolean has(OfflinePlayer offlinePlayer, double v) {
-        return has(offlinePlayer.getName(), v);
+        return has(offlinePlayer.getUniqueId(), v);
     }
 
     @Override
@@ -119,27 +142,25 @@ public class BancoVaultImpl implements Economy {
 
     @Override
     public boolean has(OfflinePlayer offlinePlayer, String s, double v) {
-        return has(offlinePlayer.getName(), v);
+        return has(offlinePlayer, v);
     }
 
-    @Override
-    public EconomyResponse withdrawPlayer(String s, double v) {
-        if (!hasAccount(s)) {
-            Banco.get().getAccountManager().add(new Account(PlayerUtil.getUuid(s), BigDecimal.valueOf(0), BigDecimal.valueOf(0)));
-        }
+    private boolean has(UUID uuid, double v) {
+        Account account = Banco.get().getAccountManager().get(uuid);
+        if (account == null)
+            return v <= 0;
 
-        Account account = Banco.get().getAccountManager().get(PlayerUtil.getUuid(s));
-        Banco.get().getAccountManager().withdraw(account, BigDecimal.valueOf(v));
+        return units(account) >= Money.toUnits(v);
+    }
 
-        return new EconomyResponse(v,
-                getBalance(Bukkit.getOfflinePlayer(PlayerUtil.getUuid(s))),
-                EconomyResponse.ResponseType.SUCCESS,
-                "");
+    @Override
+    public EconomyResponse withdrawPlayer(String s, double v) {
+        return withdrawPlayer(PlayerUtil.resolveUuid(s), v);
     }
 
     @Override
     public EconomyResponse withdrawPlayer(OfflinePlayer offlinePlayer, double v) {
-        return withdrawPlayer(offlinePlayer.getName(), v);
+        return withdrawPlayer(offlinePlayer.getUniqueId(), v);
     }
 
     @Override
@@ -149,27 +170,30 @@ public class BancoVaultImpl implements Economy {
 
     @Override
     public EconomyResponse withdrawPlayer(OfflinePlayer offlinePlayer, String s, double v) {
-        return withdrawPlayer(offlinePlayer.getName(), v);
+        return withdrawPlayer(offlinePlayer, v);
     }
 
-    @Override
-    public EconomyResponse depositPlayer(String s, double v) {
-        if (!hasAccount(s)) {
-            Banco.get().getAccountManager().add(new Account(PlayerUtil.getUuid(s), BigDecimal.valueOf(0), BigDecimal.valueOf(0)));
+    private EconomyResponse withdrawPlayer(UUID uuid, double v) {
+        Account account = getOrCreateAccount(uuid);
+        try (AccountManager.Cause ignored = Banco.get().getAccountManager().withCause("vault")) {
+            Banco.get().getAccountManager().withdraw(account, BigDecimal.valueOf(v));
         }
 
-        Account account = Banco.get().getAccountManager().get(PlayerUtil.getUuid(s));
-        Banco.get().getAccountManager().deposit(account, BigDecimal.valueOf(v));
-
+        // The balance is updated as part of the transaction, so there is no need to look it up again
         return new EconomyResponse(v,
-                getBalance(Bukkit.getOfflinePlayer(PlayerUtil.getUuid(s))),
+                Money.toDouble(Banco.get().getAccountManager().cachedUnits(account)),
                 EconomyResponse.ResponseType.SUCCESS,
                 "");
     }
 
+    @Override
+    public EconomyResponse depositPlayer(String s, double v) {
+        return depositPlayer(PlayerUtil.resolveUuid(s), v);
+    }
+
     @Override
     public EconomyResponse depositPlayer(OfflinePlayer offlinePlayer, double v) {
-        return depositPlayer(offlinePlayer.getName(), v);
+        return depositPlayer(offlinePlayer.getUniqueId(), v);
     }
 
     @Override
@@ -179,7 +203,28 @@ public class BancoVaultImpl implements Economy {
 
     @Override
     public EconomyResponse depositPlayer(OfflinePlayer offlinePlayer, String s, double v) {
-        return depositPlayer(offlinePlayer.getName(), v);
+        return depositPlayer(offlinePlayer, v);
+    }
+
+    private EconomyResponse depositPlayer(UUID uuid, double v) {
+        Account account = getOrCreateAccount(uuid);
+        try (AccountManager.Cause ignored = Banco.get().getAccountManager().withCause("vault")) {
+            Banco.get().getAccountManager().deposit(account, BigDecimal.valueOf(v));
+        }
+
+        // The balance is updated as part of the transaction, so there is no need to look it up again
+        return new EconomyResponse(v,
+                Money.toDouble(Banco.get().getAccountManager().cachedUnits(account)),
+                EconomyResponse.ResponseType.SUCCESS,
+                "");
+    }
+
+    private Account getOrCreateAccount(UUID uuid) {
+        Account account = Banco.get().getAccountManager().get(uuid);
+        if (account == null)
+            account = Banco.get().getAccountManager().addIfAbsent(new Account(uuid, BigDecimal.valueOf(0), BigDecimal.valueOf(0)));
+
+        return account;
     }
 
     @Override
@@ -7,9 +7,11 @@ import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.BancoSupplier;
 import ovh.mythmc.banco.api.storage.BancoConfig;
 import ovh.mythmc.banco.api.storage.BancoStorage;
+import ovh.mythmc.banco.common.economy.MaterialValueTable;
 import ovh.mythmc.banco.common.util.UpdateChecker;
 
 import java.io.File;
+import java.io.IOException;
 
 @Getter
 @RequiredArgsConstructor
@@ -53,9 +55,21 @@ public abstract class BancoBootstrap<T> implements Banco {
     public abstract void shutdown();
 
     public final void reload() {
+        // Unsaved changes are written with the previous settings before anything is reloaded
+        try {
+            getStorage().save();
+        } catch (IOException e) {
+            getLogger().error("Could not save data before reloading: {}", e.getMessage());
+        }
+
+        // Configuration goes first so that accounts are loaded with the configured currency scale
+        getConfig().load();
+
+        // Compiled once here rather than by the first inventory lookup after the values change
+        MaterialValueTable.get();
+
         getStorage().clear();
         getStorage().load();
-        getConfig().load();
     }
 
     public abstract String version();
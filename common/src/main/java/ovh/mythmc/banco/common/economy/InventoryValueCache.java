@@ -0,0 +1,107 @@
+package ovh.mythmc.banco.common.economy;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.economy.Money;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class InventoryValueCache {
+
+    public static final InventoryValueCache instance = new InventoryValueCache();
+
+    // Inventory events are fired before Bukkit applies them, so values computed during the same tick as an
+    // invalidation are returned but never cached
+    public static final long SETTLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // Upper bound for changes we cannot listen to (commands, other plugins modifying inventories...)
+    public static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    // Values are stored in minor units (see Money)
+    private record Entry(MaterialValueTable table,
+                         long inventory,
+                         long enderChest,
+                         long computedAt,
+                         long invalidatedAt,
+                         boolean inventoryDirty,
+                         boolean enderChestDirty) { }
+
+    public long get(final @NotNull Player player, boolean countEnderChest) {
+        UUID uuid = player.getUniqueId();
+        MaterialValueTable table = MaterialValueTable.get();
+        long now = System.nanoTime();
+        Entry entry = entries.get(uuid);
+
+        boolean valid = entry != null && entry.table() == table && now - entry.computedAt() < MAX_AGE_NANOS;
+        boolean inventoryDirty = !valid || entry.inventoryDirty();
+        boolean enderChestDirty = countEnderChest && (!valid || entry.enderChestDirty());
+
+        if (!inventoryDirty && !enderChestDirty) {
+            hits.increment();
+            return countEnderChest ? Money.add(entry.inventory(), entry.enderChest()) : entry.inventory();
+        }
+
+        misses.increment();
+
+        // Only the containers that changed since the last valuation are summed again
+        long inventory = inventoryDirty ? table.value(player.getInventory().getContents()) : entry.inventory();
+        long enderChest = 0;
+        if (countEnderChest)
+            enderChest = enderChestDirty ? table.value(player.getEnderChest().getContents()) : entry.enderChest();
+
+        if (entry == null) {
+            entries.putIfAbsent(uuid, new Entry(table, inventory, enderChest, now, now - SETTLE_NANOS, false, !countEnderChest));
+        } else if (now - entry.invalidatedAt() >= SETTLE_NANOS) {
+            entries.replace(uuid, entry, new Entry(table, inventory, enderChest, inventoryDirty ? now : entry.computedAt(),
+                    entry.invalidatedAt(), false, !countEnderChest));
+        }
+
+        return countEnderChest ? Money.add(inventory, enderChest) : inventory;
+    }
+
+    public void invalidate(final @NotNull UUID uuid) { invalidate(uuid, true, false); }
+
+    public void invalidateEnderChest(final @NotNull UUID uuid) { invalidate(uuid, false, true); }
+
+    public void invalidateAll(final @NotNull UUID uuid) { invalidate(uuid, true, true); }
+
+    private void invalidate(final @NotNull UUID uuid, boolean inventory, boolean enderChest) {
+        long now = System.nanoTime();
+        entries.compute(uuid, (key, entry) -> {
+            if (entry == null)
+                return new Entry(null, 0, 0, now, now, true, true);
+
+            return new Entry(entry.table(), entry.inventory(), entry.enderChest(), entry.computedAt(), now,
+                    entry.inventoryDirty() || inventory, entry.enderChestDirty() || enderChest);
+        });
+    }
+
+    // When the player's inventories were last invalidated, or 0 if nothing is cached for them. Lets caches built on top
+    // of inventory values know when to drop their own entries
+    public long invalidatedAt(final @NotNull UUID uuid) {
+        Entry entry = entries.get(uuid);
+        return entry == null ? 0 : entry.invalidatedAt();
+    }
+
+    public void remove(final @NotNull UUID uuid) { entries.remove(uuid); }
+
+    public void clear() { entries.clear(); }
+
+    public long hits() { return hits.sum(); }
+
+    public long misses() { return misses.sum(); }
+
+}
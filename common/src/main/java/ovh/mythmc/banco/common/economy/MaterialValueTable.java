@@ -0,0 +1,159 @@
+package ovh.mythmc.banco.common.economy;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.Money;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+public final class MaterialValueTable {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    // Rebuilt whenever the economy manager's values change
+    private static volatile MaterialValueTable table;
+
+    private final int revision;
+
+    private final int[] indexByOrdinal;
+
+    private final Material[] materials;
+
+    // Values in minor units (see Money)
+    private final long[] values;
+
+    private final int[] maxStackSizes;
+
+    // Indexes sorted from most to least valuable, used to pay out amounts with as few items as possible
+    private final int[] denominations;
+
+    private MaterialValueTable(int revision, Map<String, BigDecimal> valuesMap) {
+        this.revision = revision;
+        this.indexByOrdinal = new int[MATERIALS.length];
+        Arrays.fill(indexByOrdinal, -1);
+
+        Material[] materials = new Material[valuesMap.size()];
+        long[] values = new long[valuesMap.size()];
+        int size = 0;
+
+        for (Map.Entry<String, BigDecimal> entry : valuesMap.entrySet()) {
+            Material material = Material.getMaterial(entry.getKey());
+            if (material == null) {
+                Banco.get().getLogger().warn("Ignoring value for unknown material {}", entry.getKey());
+                continue;
+            }
+
+            long value = Money.toUnits(entry.getValue());
+            if (value <= 0) {
+                if (entry.getValue().signum() > 0)
+                    Banco.get().getLogger().warn("Ignoring value for {} as it is below the configured currency precision", entry.getKey());
+                continue;
+            }
+
+            indexByOrdinal[material.ordinal()] = size;
+            materials[size] = material;
+            values[size] = value;
+            size++;
+        }
+
+        this.materials = Arrays.copyOf(materials, size);
+        this.values = Arrays.copyOf(values, size);
+        this.maxStackSizes = new int[size];
+        for (int i = 0; i < size; i++)
+            maxStackSizes[i] = Math.max(1, this.materials[i].getMaxStackSize());
+
+        this.denominations = IntStream.range(0, size)
+                .boxed()
+                .sorted(Comparator.comparingLong((Integer index) -> this.values[index]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    public static @NotNull MaterialValueTable get() {
+        MaterialValueTable current = table;
+        int revision = Banco.get().getEconomyManager().revision();
+
+        if (current == null || current.revision != revision) {
+            current = new MaterialValueTable(revision, Banco.get().getEconomyManager().values());
+            table = current;
+        }
+
+        return current;
+    }
+
+    public int size() { return materials.length; }
+
+    public int index(@NotNull Material material) { return indexByOrdinal[material.ordinal()]; }
+
+    public @NotNull Material material(int index) { return materials[index]; }
+
+    public long value(int index) { return values[index]; }
+
+    // Index of the n-th most valuable material
+    public int denomination(int n) { return denominations[n]; }
+
+    public boolean isValuable(@NotNull Material material) { return index(material) >= 0; }
+
+    public long value(@NotNull Material material) {
+        int index = index(material);
+        return index < 0 ? 0 : values[index];
+    }
+
+    public long value(@NotNull ItemStack item) {
+        int index = index(item.getType());
+        if (index < 0)
+            return 0;
+
+        return Money.multiply(values[index], item.getAmount());
+    }
+
+    // Splits an amount into stacks of the most valuable materials first, never exceeding their max stack size.
+    // Returns the units that cannot be represented with the configured values
+    public long split(long units, @NotNull StackConsumer consumer) {
+        for (int index : denominations) {
+            long value = values[index];
+            if (value > units)
+                continue;
+
+            long count = units / value;
+            units -= count * value;
+
+            int maxStackSize = maxStackSizes[index];
+            while (count > 0) {
+                int amount = (int) Math.min(count, maxStackSize);
+                consumer.accept(materials[index], amount);
+                count -= amount;
+            }
+        }
+
+        return units;
+    }
+
+    public long value(ItemStack[] contents) {
+        long sum = 0;
+        for (ItemStack item : contents) {
+            if (item == null)
+                continue;
+
+            int index = indexByOrdinal[item.getType().ordinal()];
+            if (index >= 0)
+                sum = Money.add(sum, Money.multiply(values[index], item.getAmount()));
+        }
+
+        return sum;
+    }
+
+    @FunctionalInterface
+    public interface StackConsumer {
+
+        void accept(@NotNull Material material, int amount);
+
+    }
+
+}
@@ -1,7 +1,6 @@
 package ovh.mythmc.banco.common.impl;
 
 import org.bukkit.Bukkit;
-import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.Plugin;
@@ -9,11 +8,10 @@ import org.jetbrains.annotations.NotNull;
 import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.economy.BancoHelper;
 import ovh.mythmc.banco.api.economy.BancoHelperSupplier;
-import ovh.mythmc.banco.api.economy.accounts.Account;
-import ovh.mythmc.banco.common.util.MathUtil;
+import ovh.mythmc.banco.api.economy.Money;
+import ovh.mythmc.banco.common.economy.InventoryValueCache;
+import ovh.mythmc.banco.common.economy.MaterialValueTable;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -29,61 +27,101 @@ public class BancoHelperImpl implements BancoHelper {
     }
 
     @Override
-    public final BigDecimal add(UUID uuid, BigDecimal amount) {
+    public final long add(UUID uuid, long units) {
         Player player = Bukkit.getOfflinePlayer(uuid).getPlayer();
         if (player == null)
-            return BigDecimal.valueOf(0);
+            return 0;
 
-        BigDecimal amountGiven = BigDecimal.valueOf(0);
+        long remainder = giveItems(player, units);
+        InventoryValueCache.instance.invalidate(uuid);
 
-        for (ItemStack item : convertAmountToItems(amount)) {
-            amountGiven = amountGiven.add(Banco.get().getEconomyManager().value(item.getType().name(), item.getAmount()));
-
-            if (!player.getInventory().addItem(item).isEmpty())
-                player.getWorld().dropItemNaturally(player.getLocation(), item);
-           }
+        return remainder;
+    }
 
-        return amount.subtract(amountGiven);
+    private static long giveItems(Player player, long units) {
+        return MaterialValueTable.get().split(units, (material, amount) -> {
+            // Only whatever does not fit in the inventory is dropped
+            player.getInventory().addItem(new ItemStack(material, amount)).values()
+                    .forEach(leftover -> player.getWorld().dropItemNaturally(player.getLocation(), leftover));
+        });
     }
 
-    // Todo: look for less valuable items first
+    // Takes the least valuable items first and gives change back when a single item is worth more than what is
+    // left. Returns the units that could not be removed, which is negative if the change could not be given back
     @Override
-    public BigDecimal remove(UUID uuid, BigDecimal amount) {
+    public long remove(UUID uuid, long units) {
         Player player = Bukkit.getOfflinePlayer(uuid).getPlayer();
-        if (player == null)
-            return BigDecimal.valueOf(0);
-
-        if (Banco.get().getConfig().getSettings().getCurrency().countEnderChest()) {
-            BigDecimal remainingAmount = removeFromInventory(player.getEnderChest().getContents(), uuid, amount);
+        if (player == null || units <= 0)
+            return 0;
+
+        MaterialValueTable table = MaterialValueTable.get();
+        ItemStack[] enderChest = Banco.get().getConfig().getSettings().getCurrency().countEnderChest()
+                ? player.getEnderChest().getContents()
+                : new ItemStack[0];
+        ItemStack[] inventory = player.getInventory().getContents();
+
+        long[] available = new long[table.size()];
+        count(enderChest, table, available);
+        count(inventory, table, available);
+
+        // Plan how many items of each material are taken, starting with the least valuable ones
+        long[] taken = new long[table.size()];
+        long remaining = units;
+        for (int i = table.size() - 1; i >= 0 && remaining > 0; i--) {
+            int index = table.denomination(i);
+            long amount = Math.min(available[index], remaining / table.value(index));
+            taken[index] = amount;
+            remaining -= Money.multiply(amount, table.value(index));
+        }
 
-            if (remainingAmount.compareTo(BigDecimal.valueOf(0)) > 0)
-                return removeFromInventory(player.getInventory().getContents(), uuid, remainingAmount);
+        // Whatever is left is worth less than any remaining item, so the cheapest of them is taken and change is given
+        long change = 0;
+        if (remaining > 0) {
+            for (int i = table.size() - 1; i >= 0; i--) {
+                int index = table.denomination(i);
+                if (available[index] > taken[index]) {
+                    taken[index]++;
+                    change = table.value(index) - remaining;
+                    remaining = 0;
+                    break;
+                }
+            }
         }
 
-        return removeFromInventory(player.getInventory().getContents(), uuid, amount);
-    }
+        take(enderChest, table, taken);
+        take(inventory, table, taken);
 
-    private BigDecimal removeFromInventory(ItemStack[] inventory, UUID uuid, BigDecimal amount) {
-        for (ItemStack item : inventory) {
-            if (item == null) continue;
-            if (amount.compareTo(BigDecimal.valueOf(0)) < 0.01) continue;
+        long unrepresentable = change > 0 ? giveItems(player, change) : 0;
+        InventoryValueCache.instance.invalidateAll(uuid);
 
-            BigDecimal value = Banco.get().getEconomyManager().value(item.getType().name(), item.getAmount());
+        return remaining - unrepresentable;
+    }
 
-            if (value.compareTo(BigDecimal.valueOf(0)) > 0) {
-                item.setAmount(0);
-                BigDecimal added = BigDecimal.valueOf(0);
-                if (value.compareTo(amount) > 0) {
-                    added = value.subtract(amount);
-                    Account account = Banco.get().getAccountManager().get(uuid);
-                    Banco.get().getAccountManager().set(account, account.amount().add(added));
-                }
+    private static void count(ItemStack[] contents, MaterialValueTable table, long[] available) {
+        for (ItemStack item : contents) {
+            if (item == null)
+                continue;
 
-                amount = amount.subtract(value.subtract(added));
-            }
+            int index = table.index(item.getType());
+            if (index >= 0)
+                available[index] += item.getAmount();
         }
+    }
+
+    // Partial stacks are decremented in place, so no more items than planned are ever removed
+    private static void take(ItemStack[] contents, MaterialValueTable table, long[] taken) {
+        for (ItemStack item : contents) {
+            if (item == null)
+                continue;
+
+            int index = table.index(item.getType());
+            if (index < 0 || taken[index] <= 0)
+                continue;
 
-        return amount;
+            int amount = (int) Math.min(item.getAmount(), taken[index]);
+            item.setAmount(item.getAmount() - amount);
+            taken[index] -= amount;
+        }
     }
 
     @Override
@@ -92,42 +130,16 @@ public class BancoHelperImpl implements BancoHelper {
     }
 
     @Override
-    public BigDecimal getInventoryValue(UUID uuid) {
-        BigDecimal value = BigDecimal.valueOf(0);
-
-        for (ItemStack item : Objects.requireNonNull(Bukkit.getPlayer(uuid)).getInventory()) {
-            if (item != null)
-                value = value.add(Banco.get().getEconomyManager().value(item.getType().name(), item.getAmount()));
-        }
-
-        if (Banco.get().getConfig().getSettings().getCurrency().countEnderChest()) {
-            for (ItemStack item : Objects.requireNonNull(Bukkit.getPlayer(uuid)).getEnderChest()) {
-                if (item != null)
-                    value = value.add(Banco.get().getEconomyManager().value(item.getType().name(), item.getAmount()));
-            }
-        }
-
-        return value;
+    public long getInventoryUnits(UUID uuid) {
+        Player player = Objects.requireNonNull(Bukkit.getPlayer(uuid));
+        return InventoryValueCache.instance.get(player, Banco.get().getConfig().getSettings().getCurrency().countEnderChest());
     }
 
-    public List<ItemStack> convertAmountToItems(BigDecimal amount) {
+    public List<ItemStack> convertAmountToItems(long units) {
         List<ItemStack> items = new ArrayList<>();
-
-        for (String materialName : MathUtil.sortByValue(Banco.get().getEconomyManager().values()).keySet()) {
-            BigDecimal itemValue = Banco.get().getEconomyManager().value(materialName);
-
-            if (itemValue.compareTo(amount) > 0)
-                continue;
-
-            int itemAmount = (amount.divide(itemValue, RoundingMode.FLOOR)).intValue();
-
-            if (itemAmount > 0) {
-                items.add(new ItemStack(Objects.requireNonNull(Material.getMaterial(materialName)), itemAmount));
-            }
-
-            amount = amount.subtract(Banco.get().getEconomyManager().value(materialName, itemAmount));
-        }
+        MaterialValueTable.get().split(units, (material, amount) -> items.add(new ItemStack(material, amount)));
 
         return items;
     }
+
 }
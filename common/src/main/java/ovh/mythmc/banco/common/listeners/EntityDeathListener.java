@@ -4,9 +4,7 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDeathEvent;
-import ovh.mythmc.banco.api.Banco;
-
-import java.math.BigDecimal;
+import ovh.mythmc.banco.common.economy.MaterialValueTable;
 
 public class EntityDeathListener implements Listener {
 
@@ -15,7 +13,8 @@ public class EntityDeathListener implements Listener {
         if (event.getEntityType().equals(EntityType.PLAYER))
             return;
 
-        event.getDrops().removeIf(item -> Banco.get().getEconomyManager().value(item.getType().name()).compareTo(BigDecimal.valueOf(0)) > 0);
+        MaterialValueTable table = MaterialValueTable.get();
+        event.getDrops().removeIf(item -> table.isValuable(item.getType()));
     }
 
 }
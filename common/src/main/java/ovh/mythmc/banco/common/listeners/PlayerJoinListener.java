@@ -6,6 +6,7 @@ import org.bukkit.event.player.PlayerJoinEvent;
 import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.economy.accounts.Account;
 import ovh.mythmc.banco.api.economy.accounts.AccountManager;
+import ovh.mythmc.banco.api.economy.accounts.PlayerNameCache;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -17,12 +18,12 @@ public class PlayerJoinListener implements Listener {
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         UUID uuid = event.getPlayer().getUniqueId();
+        PlayerNameCache.instance.put(event.getPlayer().getName(), uuid);
+
         Account account = accountManager.get(uuid);
 
-        if (account == null) {
-            account = new Account(uuid, BigDecimal.valueOf(0), BigDecimal.valueOf(0));
-            accountManager.add(account);
-        }
+        if (account == null)
+            account = accountManager.addIfAbsent(new Account(uuid, BigDecimal.valueOf(0), BigDecimal.valueOf(0)));
 
         accountManager.updateTransactions(account);
     }
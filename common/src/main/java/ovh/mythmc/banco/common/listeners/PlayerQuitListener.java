@@ -4,8 +4,9 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerQuitEvent;
 import ovh.mythmc.banco.api.Banco;
-import ovh.mythmc.banco.api.economy.BancoHelper;
+import ovh.mythmc.banco.api.economy.accounts.Account;
 import ovh.mythmc.banco.api.economy.accounts.AccountManager;
+import ovh.mythmc.banco.common.economy.InventoryValueCache;
 
 import java.util.UUID;
 
@@ -16,11 +17,14 @@ public class PlayerQuitListener implements Listener {
     @EventHandler
     public void onPlayerJoin(PlayerQuitEvent event) {
         UUID uuid = event.getPlayer().getUniqueId();
+        Account account = accountManager.get(uuid);
 
-        if (accountManager.get(uuid) == null)
+        if (account == null)
             return;
 
-        BancoHelper.get().getInventoryValue(uuid);
+        // Store an up-to-date inventory value before the player goes offline
+        InventoryValueCache.instance.invalidateAll(uuid);
+        accountManager.amount(account);
     }
 
 }
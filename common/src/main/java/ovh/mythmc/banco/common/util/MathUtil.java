@@ -24,4 +24,13 @@ public final class MathUtil {
         }
     }
 
+    public static boolean isInteger(final @NotNull String input) {
+        try {
+            Integer.parseInt(input);
+            return true;
+        } catch (final NumberFormatException e) {
+            return false;
+        }
+    }
+
 }
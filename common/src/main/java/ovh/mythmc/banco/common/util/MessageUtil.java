@@ -4,10 +4,9 @@ import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextColor;
 import org.jetbrains.annotations.NotNull;
-import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.CurrencyFormatter;
 
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
 
 @SuppressWarnings("unused")
 public final class MessageUtil {
@@ -71,8 +70,7 @@ public final class MessageUtil {
     }
 
     public static String format(final @NotNull BigDecimal value) {
-        DecimalFormat format = new DecimalFormat(Banco.get().getConfig().getSettings().getCurrency().format());
-        return format.format(value);
+        return CurrencyFormatter.get().format(value);
     }
 
 }
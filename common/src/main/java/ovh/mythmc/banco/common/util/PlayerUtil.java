@@ -1,10 +1,36 @@
 package ovh.mythmc.banco.common.util;
 
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import ovh.mythmc.banco.api.economy.accounts.PlayerNameCache;
+
 import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 public class PlayerUtil {
 
+    // Players that joined before are resolved to their real UUID. Anything else (offline mode players or accounts
+    // that do not belong to a player) falls back to the offline UUID derived from the name
+    public static UUID resolveUuid(String name) {
+        UUID uuid = PlayerNameCache.instance.getUuid(name);
+        if (uuid != null)
+            return uuid;
+
+        Player player = Bukkit.getPlayerExact(name);
+        if (player != null)
+            return player.getUniqueId();
+
+        return getUuid(name);
+    }
+
+    public static String getName(UUID uuid) {
+        String name = PlayerNameCache.instance.getName(uuid);
+        if (name != null)
+            return name;
+
+        return Bukkit.getOfflinePlayer(uuid).getName();
+    }
+
     public static UUID getUuid(String name) {
         name = "OfflinePlayer:" + name;
         return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
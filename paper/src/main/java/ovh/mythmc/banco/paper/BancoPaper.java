@@ -13,18 +13,21 @@ import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
 import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.logger.LoggerWrapper;
+import ovh.mythmc.banco.api.scheduler.BancoScheduler;
+import ovh.mythmc.banco.common.economy.InventoryValueCache;
 import ovh.mythmc.banco.common.listeners.EntityDeathListener;
+import ovh.mythmc.banco.common.listeners.InventoryChangeListener;
 import ovh.mythmc.banco.common.listeners.PlayerJoinListener;
 import ovh.mythmc.banco.common.listeners.PlayerQuitListener;
 import ovh.mythmc.banco.common.util.TranslationUtil;
 import ovh.mythmc.banco.paper.commands.BalanceCommand;
+import ovh.mythmc.banco.paper.commands.BalanceTopCommand;
 import ovh.mythmc.banco.paper.commands.BancoCommand;
 import ovh.mythmc.banco.paper.commands.PayCommand;
 import ovh.mythmc.banco.common.impl.BancoHelperImpl;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 @Getter
 public final class BancoPaper extends BancoBootstrap<BancoPaperPlugin> {
@@ -33,8 +36,12 @@ public final class BancoPaper extends BancoBootstrap<BancoPaperPlugin> {
 
     private BancoVaultImpl vaultImpl;
 
+    private BancoPlaceholderExpansion placeholderExpansion;
+
     private ScheduledTask autoSaveTask;
 
+    private final BancoScheduler scheduler;
+
     private final LoggerWrapper logger = new LoggerWrapper() {
         @Override
         public void info(String message, Object... args) {
@@ -55,13 +62,14 @@ public final class BancoPaper extends BancoBootstrap<BancoPaperPlugin> {
     public BancoPaper(final @NotNull BancoPaperPlugin plugin) {
         super(plugin, plugin.getDataFolder());
         instance = this;
+        this.scheduler = new BancoPaperScheduler(plugin);
     }
 
     @Override
     public void enable() {
         TranslationUtil.register();
         if (Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI"))
-            new BancoPlaceholderExpansion();
+            placeholderExpansion = new BancoPlaceholderExpansion();
 
         new BancoHelperImpl(getPlugin()); // BancoHelper.get()
 
@@ -79,6 +87,9 @@ public final class BancoPaper extends BancoBootstrap<BancoPaperPlugin> {
     public void shutdown() {
         vaultImpl.unhook();
 
+        if (placeholderExpansion != null)
+            placeholderExpansion.unregister();
+
         if (autoSaveTask != null)
             stopAutoSaver();
 
@@ -86,6 +97,8 @@ public final class BancoPaper extends BancoBootstrap<BancoPaperPlugin> {
             Banco.get().getStorage().save();
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            Banco.get().getStorage().clear();
         }
     }
 
@@ -100,6 +113,7 @@ public final class BancoPaper extends BancoBootstrap<BancoPaperPlugin> {
             Bukkit.getPluginManager().registerEvents(new EntityDeathListener(), getPlugin());
         Bukkit.getPluginManager().registerEvents(new PlayerJoinListener(), getPlugin());
         Bukkit.getPluginManager().registerEvents(new PlayerQuitListener(), getPlugin());
+        Bukkit.getPluginManager().registerEvents(new InventoryChangeListener(), getPlugin());
     }
 
     @SuppressWarnings("UnstableApiUsage")
@@ -112,17 +126,31 @@ public final class BancoPaper extends BancoBootstrap<BancoPaperPlugin> {
                 commands.register("balance", List.of("bal", "money"), new BalanceCommand());
             if (Banco.get().getConfig().getSettings().getCommands().payEnabled())
                 commands.register("pay", new PayCommand());
+            if (Banco.get().getConfig().getSettings().getCommands().baltopEnabled())
+                commands.register("baltop", List.of("balancetop"), new BalanceTopCommand());
         });
     }
 
     private void startAutoSaver() {
-        this.autoSaveTask = Bukkit.getAsyncScheduler().runAtFixedRate(getPlugin(), scheduledTask -> {
-            try {
-                Banco.get().getStorage().save();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        long frequency = Banco.get().getConfig().getSettings().getAutoSave().frequency() * 20L;
+
+        // Accounts are captured on the global region thread and written to disk in the background
+        this.autoSaveTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(getPlugin(), scheduledTask -> {
+            Banco.get().getStorage().saveAsync().exceptionally(throwable -> {
+                getLogger().error("Could not save data: {}", throwable.getMessage());
+                return null;
+            });
+
+            if (Banco.get().getConfig().getSettings().isDebug()) {
+                getLogger().info("Inventory value cache: {} hits, {} misses",
+                        InventoryValueCache.instance.hits(), InventoryValueCache.instance.misses());
+
+                if (placeholderExpansion != null)
+                    getLogger().info("Placeholders: {} requests ({}/s), {}% served from cache",
+                            placeholderExpansion.requests(), String.format("%.1f", placeholderExpansion.requestRate()),
+                            placeholderExpansion.requests() == 0 ? 100 : placeholderExpansion.hits() * 100 / placeholderExpansion.requests());
             }
-        }, 0, Banco.get().getConfig().getSettings().getAutoSave().frequency(), TimeUnit.SECONDS);
+        }, frequency, frequency);
     }
 
     private void stopAutoSaver() {
@@ -0,0 +1,63 @@
+package ovh.mythmc.banco.paper;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.scheduler.BancoScheduler;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Uses entity schedulers, which follow players across regions on Folia and run on the main thread on Paper
+final class BancoPaperScheduler implements BancoScheduler {
+
+    private final Plugin plugin;
+
+    BancoPaperScheduler(final @NotNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(@NotNull UUID uuid) {
+        Player player = Bukkit.getPlayer(uuid);
+        return player == null || Bukkit.isOwnedByCurrentRegion(player);
+    }
+
+    @Override
+    public @NotNull <T> CompletableFuture<T> runForPlayer(@NotNull UUID uuid, @NotNull Supplier<T> task) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player == null || Bukkit.isOwnedByCurrentRegion(player))
+            return complete(task);
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable runnable = () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        };
+
+        try {
+            // The retired callback runs if the player leaves before the task had a chance to run
+            if (player.getScheduler().run(plugin, scheduledTask -> runnable.run(), runnable) == null)
+                runnable.run();
+        } catch (IllegalPluginAccessException e) { // Plugin is being disabled
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    private static <T> CompletableFuture<T> complete(final @NotNull Supplier<T> task) {
+        try {
+            return CompletableFuture.completedFuture(task.get());
+        } catch (Throwable throwable) {
+            return CompletableFuture.failedFuture(throwable);
+        }
+    }
+
+}
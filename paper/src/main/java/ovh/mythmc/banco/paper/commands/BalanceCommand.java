@@ -34,7 +34,7 @@ public final class BalanceCommand implements BasicCommand {
             return;
         }
 
-        Account target = Banco.get().getAccountManager().get(PlayerUtil.getUuid(args[0]));
+        Account target = Banco.get().getAccountManager().get(PlayerUtil.resolveUuid(args[0]));
 
         if (target == null) {
             MessageUtil.error(stack.getSender(), translatable("banco.errors.player-not-found", text(args[0])));
@@ -44,7 +44,7 @@ public final class BalanceCommand implements BasicCommand {
         BigDecimal amount = target.amount();
 
         MessageUtil.info(stack.getSender(), translatable("banco.commands.balance.others",
-                text(Bukkit.getOfflinePlayer(target.getUuid()).getName()),
+                text(PlayerUtil.getName(target.getUuid())),
                 text(MessageUtil.format(amount)),
                 text(Banco.get().getConfig().getSettings().getCurrency().symbol()))
         );
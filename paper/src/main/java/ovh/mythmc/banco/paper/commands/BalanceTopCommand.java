@@ -0,0 +1,69 @@
+package ovh.mythmc.banco.paper.commands;
+
+import io.papermc.paper.command.brigadier.BasicCommand;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.accounts.BalanceLeaderboard;
+import ovh.mythmc.banco.common.util.MathUtil;
+import ovh.mythmc.banco.common.util.MessageUtil;
+import ovh.mythmc.banco.common.util.PlayerUtil;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.Component.translatable;
+
+@SuppressWarnings("UnstableApiUsage")
+public final class BalanceTopCommand implements BasicCommand {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Override
+    public void execute(@NotNull CommandSourceStack stack, @NotNull String[] args) {
+        int page = 1;
+        if (args.length > 0) {
+            if (!MathUtil.isInteger(args[0]) || Integer.parseInt(args[0]) < 1) {
+                MessageUtil.error(stack.getSender(), translatable("banco.errors.invalid-value", text(args[0])));
+                return;
+            }
+
+            page = Integer.parseInt(args[0]);
+        }
+
+        BalanceLeaderboard leaderboard = Banco.get().getAccountManager().getLeaderboard();
+        MessageUtil.info(stack.getSender(), translatable("banco.commands.baltop",
+                text(page),
+                text(leaderboard.pages(PAGE_SIZE)))
+        );
+
+        for (BalanceLeaderboard.Entry entry : leaderboard.page(page, PAGE_SIZE)) {
+            stack.getSender().sendMessage(translatable("banco.commands.baltop.entry",
+                    text(entry.rank()),
+                    text(Objects.requireNonNullElse(PlayerUtil.getName(entry.uuid()), entry.uuid().toString())),
+                    text(MessageUtil.format(entry.amount())),
+                    text(Banco.get().getConfig().getSettings().getCurrency().symbol())
+            ).color(MessageUtil.TEXT_COLOR));
+        }
+
+        if (stack.getSender() instanceof Player player) {
+            int rank = leaderboard.rank(player.getUniqueId());
+            if (rank > 0)
+                MessageUtil.info(stack.getSender(), translatable("banco.commands.baltop.rank", text(rank), text(leaderboard.size())));
+        }
+    }
+
+    @Override
+    public @NotNull Collection<String> suggest(@NotNull CommandSourceStack commandSourceStack, @NotNull String[] args) {
+        return List.of();
+    }
+
+    @Override
+    public String permission() {
+        return "banco.user";
+    }
+
+}
@@ -5,6 +5,7 @@ import io.papermc.paper.command.brigadier.CommandSourceStack;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
+import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.common.util.MessageUtil;
 import ovh.mythmc.banco.paper.commands.banco.*;
 
@@ -23,6 +24,9 @@ public final class BancoCommand implements BasicCommand {
         subCommands.put("take", new TakeSubcommand());
         subCommands.put("reload", new ReloadSubcommand());
         subCommands.put("save", new SaveSubcommand());
+        subCommands.put("convert", new ConvertSubcommand());
+        subCommands.put("stats", new StatsSubcommand());
+        subCommands.put("history", new HistorySubcommand());
     }
     @Override
     public void execute(@NotNull CommandSourceStack stack, @NotNull String[] args) {
@@ -44,10 +48,12 @@ public final class BancoCommand implements BasicCommand {
     public @NotNull Collection<String> suggest(@NotNull CommandSourceStack commandSourceStack, @NotNull String[] args) {
         if (args.length == 1) {
             switch (args[0]) {
-                case "give", "take", "set":
+                case "give", "take", "set", "history":
                     List<String> onlinePlayers = new ArrayList<>();
                     Bukkit.getOnlinePlayers().forEach(player -> onlinePlayers.add(player.getName()));
                     return List.copyOf(onlinePlayers);
+                case "convert":
+                    return List.copyOf(Banco.get().getStorage().types());
             }
         }
 
@@ -8,6 +8,8 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountManager;
+import ovh.mythmc.banco.api.economy.accounts.TransactionBatch;
 import ovh.mythmc.banco.common.util.MathUtil;
 import ovh.mythmc.banco.common.util.MessageUtil;
 import ovh.mythmc.banco.common.util.PlayerUtil;
@@ -34,7 +36,7 @@ public class PayCommand implements BasicCommand {
             return;
         }
 
-        Account target = Banco.get().getAccountManager().get(PlayerUtil.getUuid(args[0]));
+        Account target = Banco.get().getAccountManager().get(PlayerUtil.resolveUuid(args[0]));
         if (target == null) {
             MessageUtil.error(stack.getSender(), translatable("banco.errors.player-not-found", text(args[0])));
             return;
@@ -51,23 +53,29 @@ public class PayCommand implements BasicCommand {
         }
 
         BigDecimal amount = BigDecimal.valueOf(Double.parseDouble(args[1]));
-        if (Banco.get().getAccountManager().amount(source).compareTo(amount) < 0) {
+        TransactionBatch.Result result;
+        try (AccountManager.Cause ignored = Banco.get().getAccountManager().withCause("pay")) {
+            result = Banco.get().getAccountManager().transfer(source, target, amount);
+        }
+        if (result == TransactionBatch.Result.INSUFFICIENT_FUNDS) {
             MessageUtil.error(stack.getSender(), "banco.errors.not-enough-funds");
             return;
         }
 
-        Banco.get().getAccountManager().withdraw(source, amount);
-        Banco.get().getAccountManager().deposit(target, amount);
+        if (result != TransactionBatch.Result.SUCCESS) {
+            MessageUtil.error(stack.getSender(), translatable("banco.errors.invalid-value", text(args[1])));
+            return;
+        }
 
         MessageUtil.success(stack.getSender(), translatable("banco.commands.pay.success",
                 text(MessageUtil.format(amount)),
                 text(Banco.get().getConfig().getSettings().getCurrency().symbol()),
-                text(Bukkit.getOfflinePlayer(target.getUuid()).getName()))
+                text(PlayerUtil.getName(target.getUuid())))
         );
 
         if (Bukkit.getOfflinePlayer(target.getUuid()).isOnline()) {
             MessageUtil.info((Audience) Bukkit.getOfflinePlayer(target.getUuid()).getPlayer(), translatable("banco.commands.pay.received",
-                    text(Bukkit.getOfflinePlayer(source.getUuid()).getName()),
+                    text(PlayerUtil.getName(source.getUuid())),
                     text(MessageUtil.format(amount)),
                     text(Banco.get().getConfig().getSettings().getCurrency().symbol())
             ));
@@ -0,0 +1,41 @@
+package ovh.mythmc.banco.paper.commands.banco;
+
+import org.bukkit.command.CommandSender;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.common.util.MessageUtil;
+
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.Component.translatable;
+
+public class ConvertSubcommand implements BiConsumer<CommandSender, String[]> {
+
+    @Override
+    public void accept(CommandSender sender, String[] args) {
+        if (args.length < 1) {
+            MessageUtil.error(sender, "banco.errors.not-enough-arguments");
+            return;
+        }
+
+        String type = args[0].toLowerCase(Locale.ROOT);
+        if (!Banco.get().getStorage().types().contains(type)) {
+            MessageUtil.error(sender, translatable("banco.errors.invalid-value", text(type)));
+            return;
+        }
+
+        MessageUtil.info(sender, translatable("banco.commands.banco.convert", text(type)));
+        Banco.get().getStorage().export(type).whenComplete((accounts, throwable) -> {
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                MessageUtil.error(sender, translatable("banco.commands.banco.convert.error", text(cause.getMessage())));
+                return;
+            }
+
+            MessageUtil.success(sender, translatable("banco.commands.banco.convert.success", text(accounts), text(type)));
+        });
+    }
+
+}
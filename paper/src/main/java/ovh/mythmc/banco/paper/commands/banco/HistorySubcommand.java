@@ -0,0 +1,98 @@
+package ovh.mythmc.banco.paper.commands.banco;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.CommandSender;
+import ovh.mythmc.banco.api.Banco;
+import ovh.mythmc.banco.api.economy.accounts.PlayerNameCache;
+import ovh.mythmc.banco.api.storage.LedgerEntry;
+import ovh.mythmc.banco.api.storage.TransactionLedger;
+import ovh.mythmc.banco.common.util.MathUtil;
+import ovh.mythmc.banco.common.util.MessageUtil;
+import ovh.mythmc.banco.common.util.PlayerUtil;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.Component.translatable;
+
+public class HistorySubcommand implements BiConsumer<CommandSender, String[]> {
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
+
+    @Override
+    public void accept(CommandSender sender, String[] args) {
+        if (args.length < 1) {
+            MessageUtil.error(sender, "banco.errors.not-enough-arguments");
+            return;
+        }
+
+        TransactionLedger ledger = Banco.get().getStorage().getLedger();
+        if (!ledger.isOpen()) {
+            MessageUtil.error(sender, "banco.commands.banco.history.disabled");
+            return;
+        }
+
+        int page = 1;
+        if (args.length > 1) {
+            if (!MathUtil.isInteger(args[1]) || Integer.parseInt(args[1]) < 1) {
+                MessageUtil.error(sender, translatable("banco.errors.invalid-value", text(args[1])));
+                return;
+            }
+
+            page = Integer.parseInt(args[1]);
+        }
+
+        // Only the ledger is read, so accounts that are not in memory do not have to be loaded
+        UUID uuid = PlayerUtil.resolveUuid(args[0]);
+        int requestedPage = page;
+        ledger.history(uuid, page, PAGE_SIZE).whenComplete((entries, throwable) -> {
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                MessageUtil.error(sender, translatable("banco.commands.banco.history.error", text(cause.getMessage())));
+                return;
+            }
+
+            MessageUtil.info(sender, translatable("banco.commands.banco.history", text(args[0]), text(requestedPage)));
+            if (entries.isEmpty()) {
+                sender.sendMessage(translatable("banco.commands.banco.history.empty").color(MessageUtil.TEXT_COLOR));
+                return;
+            }
+
+            entries.forEach(entry -> sender.sendMessage(line(uuid, entry).color(MessageUtil.TEXT_COLOR)));
+        });
+    }
+
+    // Transfers show the other account, while deposits and withdrawals only have one side
+    private static Component line(UUID uuid, LedgerEntry entry) {
+        Component date = text(DATE_FORMAT.format(Instant.ofEpochMilli(entry.timestamp())));
+        Component amount = text(MessageUtil.format(entry.amount()));
+        Component symbol = text(Banco.get().getConfig().getSettings().getCurrency().symbol());
+        Component cause = text(entry.cause());
+
+        if (entry.source() == null)
+            return translatable("banco.commands.banco.history.deposit", date, amount, symbol, cause);
+
+        if (entry.target() == null)
+            return translatable("banco.commands.banco.history.withdrawal", date, amount, symbol, cause);
+
+        if (uuid.equals(entry.target()))
+            return translatable("banco.commands.banco.history.received", date, amount, symbol, name(entry.source()), cause);
+
+        return translatable("banco.commands.banco.history.sent", date, amount, symbol, name(entry.target()), cause);
+    }
+
+    // Runs on the ledger's thread, where Bukkit.getOfflinePlayer must not be called, so only known names are shown
+    private static Component name(UUID uuid) {
+        return text(Objects.requireNonNullElse(PlayerNameCache.instance.getName(uuid), uuid.toString()));
+    }
+
+}
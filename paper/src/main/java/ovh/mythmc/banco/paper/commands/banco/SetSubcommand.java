@@ -3,6 +3,7 @@ package ovh.mythmc.banco.paper.commands.banco;
 import org.bukkit.command.CommandSender;
 import ovh.mythmc.banco.api.Banco;
 import ovh.mythmc.banco.api.economy.accounts.Account;
+import ovh.mythmc.banco.api.economy.accounts.AccountManager;
 import ovh.mythmc.banco.common.util.MathUtil;
 import ovh.mythmc.banco.common.util.MessageUtil;
 import ovh.mythmc.banco.common.util.PlayerUtil;
@@ -22,7 +23,7 @@ public class SetSubcommand implements BiConsumer<CommandSender, String[]> {
             return;
         }
 
-        Account target = Banco.get().getAccountManager().get(PlayerUtil.getUuid(args[0]));
+        Account target = Banco.get().getAccountManager().get(PlayerUtil.resolveUuid(args[0]));
         if (target == null) {
             MessageUtil.error(sender, translatable("banco.errors.player-not-found", text(args[0])));
             return;
@@ -34,7 +35,9 @@ public class SetSubcommand implements BiConsumer<CommandSender, String[]> {
         }
 
         BigDecimal amount = BigDecimal.valueOf(Double.parseDouble(args[1]));
-        Banco.get().getAccountManager().set(target, amount);
+        try (AccountManager.Cause ignored = Banco.get().getAccountManager().withCause("set:" + sender.getName())) {
+            Banco.get().getAccountManager().set(target, amount);
+        }
         MessageUtil.success(sender, translatable("banco.commands.banco.set.success",
                 text(args[0]),
                 text(MessageUtil.format(amount)),